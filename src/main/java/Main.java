@@ -1,15 +1,18 @@
 import api.Controller;
+import engine.EngineType;
 import py4j.GatewayServer;
 
 /**
  * Entry point of the application.
- * Initializes the game controller and starts a Py4J GatewayServer to enable communication with Python.
+ * Initializes the game controller, optionally with the decision engine given as first argument
+ * ({@code mcts} or {@code alpha_beta}), and starts a Py4J GatewayServer to enable communication with Python.
  */
 public class Main {
 
     public static void main(String[] args) {
-        // Create an instance of the game controller
-        Controller controller = new Controller();
+        // Create an instance of the game controller, with the engine named by the first argument (MCTS by default)
+        EngineType engineType = args.length > 0 ? EngineType.valueOf(args[0].toUpperCase()) : EngineType.MCTS;
+        Controller controller = new Controller(engineType);
 
         // Initialize the Py4J GatewayServer, allowing Python to interact with the Java controller
         GatewayServer server = new GatewayServer(controller);
@@ -4,31 +4,91 @@ import board.GlobalBoard;
 import common.Move;
 import common.Player;
 import common.Position;
+import engine.AlphaBetaEngine;
+import engine.EngineType;
+import engine.SearchEngine;
 import mcts.MCTSAgent;
+import mcts.OpeningBook;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
 import java.util.Map;
 
 import static api.Serializer.serialize;
 
 public class Controller {
 
+    private static final int AI_LEVEL = 8;
+
+    private final EngineType engineType;
+    private final OpeningBook openingBook;
     private GlobalBoard board;
-    private MCTSAgent mctsAgent;
+    private SearchEngine engine;
 
+    /**
+     * Creates a controller whose AI plays with Monte Carlo Tree Search.
+     */
     public Controller() {
+        this(EngineType.MCTS);
+    }
+
+    /**
+     * Creates a controller whose AI plays with the given engine.
+     *
+     * @param engineType The decision engine of the AI.
+     */
+    public Controller(EngineType engineType) {
+        this.engineType = engineType;
+        openingBook = engineType == EngineType.MCTS ? loadOpeningBook() : null;
         init();
     }
 
     /**
-     * Initializes a new game by creating a fresh board and AI agent.
+     * Initializes a new game by creating a fresh board and AI engine.
+     * The engine of a previous game is stopped first, so its threads do not outlive the game.
      */
     public void init() {
+        if (engine != null)
+            engine.stop();
         board = new GlobalBoard();
-        mctsAgent = new MCTSAgent(8);
+        engine = createEngine();
+    }
+
+    /**
+     * Creates the AI engine of a new game.
+     *
+     * @return The engine of the configured type.
+     */
+    private SearchEngine createEngine() {
+        if (engineType == EngineType.ALPHA_BETA)
+            return new AlphaBetaEngine(AI_LEVEL);
+
+        var mctsAgent = new MCTSAgent(AI_LEVEL);
+        mctsAgent.setOpeningBook(openingBook);
+        mctsAgent.setPondering(true);
+        return mctsAgent;
+    }
+
+    /**
+     * Maps the opening book at {@link OpeningBook#DEFAULT_PATH}, if one has been built.
+     *
+     * @return The book, or null if there is no book file.
+     * @throws UncheckedIOException if the book file cannot be read.
+     */
+    private static OpeningBook loadOpeningBook() {
+        if (!Files.exists(OpeningBook.DEFAULT_PATH))
+            return null;
+
+        try {
+            return OpeningBook.open(OpeningBook.DEFAULT_PATH);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
     }
 
     /**
-     * Resets the game state by reinitializing the board and AI agent.
+     * Resets the game state by stopping the AI's background search and reinitializing the board and AI engine.
      */
     public void reset() {
         init();
@@ -42,9 +102,9 @@ public class Controller {
      * @return A serialized representation of the updated game state.
      */
     public Map<String, Object> performHumanMove(int boardIndex, int position) {
-        Move move = new Move(boardIndex, Position.fromIndex(position), Player.HUMAN);
+        Move move = Move.of(boardIndex, Position.fromIndex(position), Player.HUMAN);
         board.performMove(move);
-        mctsAgent.updateTree(move);
+        engine.applyOpponentMove(move);
         return serialize(board);
     }
 
@@ -54,7 +114,7 @@ public class Controller {
      * @return A serialized representation of the updated game state.
      */
     public Map<String, Object> performAIMove() {
-        Move move = mctsAgent.getNextMove();
+        Move move = engine.getNextMove();
         board.performMove(move);
         return serialize(board);
     }
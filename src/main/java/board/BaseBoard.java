@@ -3,46 +3,73 @@ package board;
 import common.Move;
 import common.Player;
 import common.Status;
-import common.WinningLine;
 
-import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.List;
-import java.util.stream.Collectors;
-import java.util.stream.IntStream;
 
 public abstract class BaseBoard {
 
-    private final int[][] board;
-    private List<Integer> boardsInProgress;
-    private final int[] decidedBoards;
-    private final List<Move> moveHistory;
+    private static final Status[] STATUSES = Status.values();
+
+    private final int[][] cells;
+    private int boardsInProgress;
+    private final int[] wonBoards;
+    private int drawnBoards;
+    private int lastMove;
+    private long hash;
     private Status status;
 
     /**
      * Default constructor initializing an empty board with all boards in progress.
+     * Each local board is stored as one 9-bit mask per player; decided boards are
+     * stored as one 9-bit mask per player plus one for drawn boards.
      */
     public BaseBoard() {
-        board = new int[9][9];
-        boardsInProgress = Arrays.asList(0, 1, 2, 3, 4, 5, 6, 7, 8);
-        decidedBoards = new int[]{-1, -1, -1, -1, -1, -1, -1, -1, -1};
-        moveHistory = new ArrayList<>();
+        cells = new int[2][9];
+        boardsInProgress = BitBoards.FULL;
+        wonBoards = new int[2];
+        drawnBoards = 0;
+        lastMove = Move.NONE;
+        hash = Zobrist.NEXT_BOARD[Zobrist.FREE_CHOICE];
         status = Status.IN_PROGRESS;
     }
 
     /**
      * Copy constructor for creating a deep copy of another board.
+     * Only the last move is kept; the full history is the concern of subclasses that need it.
      *
      * @param other The board to copy.
      */
     public BaseBoard(BaseBoard other) {
-        board = copyBoard(other.getBoard());
-        boardsInProgress = new ArrayList<>(other.getBoardsInProgress());
-        decidedBoards = Arrays.copyOf(other.getDecidedBoards(), 9);
-        moveHistory = new ArrayList<>(other.getMoveHistory());
+        cells = new int[][]{
+                Arrays.copyOf(other.cells[0], 9),
+                Arrays.copyOf(other.cells[1], 9)
+        };
+        boardsInProgress = other.boardsInProgress;
+        wonBoards = Arrays.copyOf(other.wonBoards, 2);
+        drawnBoards = other.drawnBoards;
+        lastMove = other.lastMove;
+        hash = other.hash;
         status = other.getStatus();
     }
 
+    /**
+     * Overwrites this board with the state of another board, reusing this board's arrays.
+     * Only the last move is kept, as in the copy constructor.
+     *
+     * @param other The board to copy.
+     */
+    protected void copyFrom(BaseBoard other) {
+        System.arraycopy(other.cells[0], 0, cells[0], 0, 9);
+        System.arraycopy(other.cells[1], 0, cells[1], 0, 9);
+        boardsInProgress = other.boardsInProgress;
+        wonBoards[0] = other.wonBoards[0];
+        wonBoards[1] = other.wonBoards[1];
+        drawnBoards = other.drawnBoards;
+        lastMove = other.lastMove;
+        hash = other.hash;
+        status = other.status;
+    }
+
     /**
      * Performs a move on the board, updating the game state accordingly.
      * Throws an exception if the move is made by the wrong player.
@@ -50,24 +77,53 @@ public abstract class BaseBoard {
      * @param move The move to be performed.
      */
     public void performMove(Move move) {
-        var boardIndex = move.boardIndex();
-        var position = move.position();
-        var currentPlayer = move.player();
+        performMove(move.code());
+    }
+
+    /**
+     * Performs a packed move on the board, updating the game state accordingly.
+     * Throws an exception if the move is made by the wrong player.
+     *
+     * @param move The packed move to be performed, see {@link Move#encode}.
+     */
+    public void performMove(int move) {
+        var currentPlayer = Move.playerOf(move);
         var lastPlayer = getLastPlayer();
 
         if (lastPlayer != null && currentPlayer == lastPlayer)
             throw new IllegalArgumentException(
-                    String.format("Player should be %s, but is %s", move.getOpponent(), currentPlayer)
+                    String.format("Player should be %s, but is %s", Move.of(move).getOpponent(), currentPlayer)
             );
 
-        board[boardIndex][position.getIndex()] = currentPlayer.getId();
+        int previousConstraint = getConstraintKey();
+        int playerIndex = currentPlayer.getId() - 1;
+
+        lastMove = move;
+        placeCell(Move.boardOf(move), Move.cellOf(move), playerIndex);
 
-        updateBoard(move, boardIndex, currentPlayer);
+        hash ^= Zobrist.CELLS[playerIndex][move % 81]
+                ^ getSideKey(lastPlayer) ^ getSideKey(currentPlayer)
+                ^ Zobrist.NEXT_BOARD[previousConstraint]
+                ^ Zobrist.NEXT_BOARD[getConstraintKey()];
     }
 
     /** Returns the last move made in the game, or null if no moves have been made. */
     public Move getLastMove() {
-        return moveHistory.isEmpty() ? null : moveHistory.get(moveHistory.size() - 1);
+        return Move.of(lastMove);
+    }
+
+    /**
+     * Returns the 64-bit Zobrist hash of the position.
+     * It covers the occupied cells, the side to move and the forced next board,
+     * and is updated incrementally with every move.
+     */
+    public long getHash() {
+        return hash;
+    }
+
+    /** Returns the packed last move, or {@link Move#NONE} if no moves have been made. */
+    public int getLastMoveCode() {
+        return lastMove;
     }
 
     /** Returns the current global status of the game. */
@@ -75,163 +131,304 @@ public abstract class BaseBoard {
         return status;
     }
 
-    /** Returns the array indicating which local boards have been decided. */
+    /**
+     * Returns the array indicating which local boards have been decided.
+     * Each entry holds the winning player's ID, 0 for a draw or -1 if the board is still in progress.
+     * The array is built from the decided-board masks on every call.
+     */
     public int[] getDecidedBoards() {
-        return decidedBoards;
-    }
+        var decidedBoards = new int[9];
 
-    /** Returns the history of all moves made in the game. */
-    public List<Move> getMoveHistory() {
-        return moveHistory;
+        for (int i = 0; i < 9; i++) {
+            int bit = 1 << i;
+            if ((wonBoards[0] & bit) != 0) {
+                decidedBoards[i] = Player.HUMAN.getId();
+            } else if ((wonBoards[1] & bit) != 0) {
+                decidedBoards[i] = Player.AI.getId();
+            } else if ((drawnBoards & bit) != 0) {
+                decidedBoards[i] = 0;
+            } else {
+                decidedBoards[i] = -1;
+            }
+        }
+
+        return decidedBoards;
     }
 
-    /** Returns the current state of the board. */
+    /**
+     * Returns the current state of the board as player IDs per cell.
+     * The array is built from the cell masks on every call.
+     */
     public int[][] getBoard() {
+        var board = new int[9][];
+        for (int i = 0; i < 9; i++) {
+            board[i] = getBoardAt(i);
+        }
         return board;
     }
 
-    /** Returns the list of currently playable local boards. */
-    protected List<Integer> getBoardsInProgress() {
+    /**
+     * Fills the given set with all legal moves for the side to move.
+     * The set is left empty once the game has been decided.
+     *
+     * @param moves The set to fill; its previous content is discarded.
+     */
+    public void getLegalMoves(MoveSet moves) {
+        moves.clear();
+        if (status != Status.IN_PROGRESS) {
+            return;
+        }
+
+        for (int boardIndex : BitBoards.cellsOf(getPlayableBoards())) {
+            moves.addBoard(boardIndex, getEmptyCells(boardIndex));
+        }
+    }
+
+    /** Returns the 9-bit mask of local boards that are still in progress. */
+    protected int getBoardsInProgress() {
+        return boardsInProgress;
+    }
+
+    /**
+     * Returns the 9-bit mask of local boards the next move may be played on.
+     * This is the forced next board if it is still in progress, otherwise every board in progress.
+     */
+    protected int getPlayableBoards() {
+        int nextBoardIndex = getNextBoardIndex();
+        if (nextBoardIndex != -1 && (boardsInProgress & (1 << nextBoardIndex)) != 0) {
+            return 1 << nextBoardIndex;
+        }
         return boardsInProgress;
     }
 
     /** Returns the player who made the last move, or null if no moves have been made. */
     protected Player getLastPlayer() {
-        return moveHistory.isEmpty() ? null : moveHistory.get(moveHistory.size() - 1).player();
+        return lastMove == Move.NONE ? null : Move.playerOf(lastMove);
     }
 
-    /** Returns the local board at the specified index. */
+    /** Returns the local board at the specified index as player IDs per cell. */
     protected int[] getBoardAt(int index) {
-        return board[index];
+        var localBoard = new int[9];
+        for (int cell = 0; cell < 9; cell++) {
+            int bit = 1 << cell;
+            if ((cells[0][index] & bit) != 0) {
+                localBoard[cell] = Player.HUMAN.getId();
+            } else if ((cells[1][index] & bit) != 0) {
+                localBoard[cell] = Player.AI.getId();
+            }
+        }
+        return localBoard;
     }
 
     /**
-     * Determines whether a random move continuation is possible.
-     * This happens when the next board to play on is either undecided or already decided.
+     * Packs the decided-board masks, the global status and the last move into a single value,
+     * so that they can be restored after a move has been taken back.
      *
-     * @return true if a random continuation is possible, false otherwise.
+     * @return The packed state.
      */
-    protected boolean randomContinuationPossible() {
-        var nextBoardIndex = getNextBoardIndex();
+    protected long getUndoState() {
+        return wonBoards[0]
+                | (long) wonBoards[1] << 9
+                | (long) drawnBoards << 18
+                | (long) status.ordinal() << 27
+                | (long) (lastMove + 1) << 32;
+    }
+
+    /**
+     * Takes back the last move made on the board and restores the decided boards, status
+     * and last move that were in place before it. The next-board constraint follows from the restored last move.
+     *
+     * @param state The packed state returned by {@link #getUndoState()} before the move.
+     */
+    protected void undoLastMove(long state) {
+        int move = lastMove;
+        var player = Move.playerOf(move);
+        int playerIndex = player.getId() - 1;
+        int constraint = getConstraintKey();
+
+        cells[playerIndex][Move.boardOf(move)] &= ~(1 << Move.cellOf(move));
+        restoreUndoState(state);
 
-        return nextBoardIndex == -1 || (nextBoardIndex >= 0 && decidedBoards[nextBoardIndex] != -1);
+        hash ^= Zobrist.CELLS[playerIndex][move % 81]
+                ^ getSideKey(player) ^ getSideKey(getLastPlayer())
+                ^ Zobrist.NEXT_BOARD[constraint]
+                ^ Zobrist.NEXT_BOARD[getConstraintKey()];
     }
 
     /**
-     * Determines which board the next move should be played on.
-     * Returns -1 if no board restriction exists.
+     * Computes the Zobrist hash of the position from scratch.
+     * Only meant for verifying the incrementally maintained {@link #getHash()}.
      *
-     * @return The index of the next board to be played on, or -1 if unrestricted.
+     * @return The hash of the current position.
      */
-    protected int getNextBoardIndex() {
-        Move lastMove = getLastMove();
-        if (lastMove == null || lastMove.position() == null) {
-            return -1;
+    protected long computeHash() {
+        long result = Zobrist.NEXT_BOARD[getConstraintKey()];
+
+        for (int playerIndex = 0; playerIndex < 2; playerIndex++) {
+            for (int boardIndex = 0; boardIndex < 9; boardIndex++) {
+                for (int cell : BitBoards.cellsOf(cells[playerIndex][boardIndex])) {
+                    result ^= Zobrist.CELLS[playerIndex][boardIndex * 9 + cell];
+                }
+            }
         }
-        return lastMove.position().getIndex();
+        return result ^ getSideKey(getLastPlayer());
     }
 
     /**
-     * Updates the board state after a move is made.
+     * Places a stone without recording it in the move history and updates the local and global status.
+     * This path never allocates.
      *
-     * @param move       The move that was performed.
-     * @param boardIndex The index of the local board the move was made on.
-     * @param player     The player who made the move.
+     * @param boardIndex  The index of the local board.
+     * @param cell        The cell index within the local board.
+     * @param playerIndex The index (player ID - 1) of the player placing the stone.
+     * @return true if the local board has just been decided, false otherwise.
      */
-    private void updateBoard(Move move, int boardIndex, Player player) {
-        moveHistory.add(move);
-        updateLocalBoardStatus(board[boardIndex], boardIndex, player.getId());
-        updateGlobalBoardStatus(player.getId());
-        updateBoardsInProgress();
+    protected boolean placeCell(int boardIndex, int cell, int playerIndex) {
+        cells[playerIndex][boardIndex] |= 1 << cell;
+
+        if (updateLocalBoardStatus(boardIndex, playerIndex)) {
+            updateGlobalBoardStatus(playerIndex);
+            return true;
+        }
+        return false;
     }
 
     /**
-     * Creates a deep copy of the board array.
+     * Copies the cell masks of both players into the given array.
      *
-     * @param other The board to copy.
-     * @return A new 2D array identical to the input board.
+     * @param snapshot An array of at least 18 entries receiving the masks.
      */
-    private int[][] copyBoard(int[][] other) {
-        return Arrays.stream(other)
-                .map(values -> Arrays.copyOf(values, 9))
-                .toArray(int[][]::new);
+    protected void saveCells(int[] snapshot) {
+        System.arraycopy(cells[0], 0, snapshot, 0, 9);
+        System.arraycopy(cells[1], 0, snapshot, 9, 9);
     }
 
     /**
-     * Updates the list of boards in progress by removing decided ones.
+     * Restores the cell masks and the state saved before a sequence of {@link #placeCell} calls.
+     *
+     * @param snapshot The masks written by {@link #saveCells(int[])}.
+     * @param state    The packed state returned by {@link #getUndoState()}.
      */
-    private void updateBoardsInProgress() {
-        boardsInProgress = IntStream.range(0, 9)
-                .filter(i -> decidedBoards[i] == -1)
-                .boxed()
-                .collect(Collectors.toList());
+    protected void restoreCells(int[] snapshot, long state) {
+        System.arraycopy(snapshot, 0, cells[0], 0, 9);
+        System.arraycopy(snapshot, 9, cells[1], 0, 9);
+        restoreUndoState(state);
+    }
+
+    /** Returns the 9-bit mask of cells occupied by the player with the given index (0 or 1) on a local board. */
+    protected int getCells(int playerIndex, int index) {
+        return cells[playerIndex][index];
+    }
+
+    /** Returns the 9-bit mask of local boards won by the player with the given index (0 or 1). */
+    protected int getWonBoards(int playerIndex) {
+        return wonBoards[playerIndex];
+    }
+
+    /** Returns the 9-bit mask of empty cells on the local board at the specified index. */
+    protected int getEmptyCells(int index) {
+        return ~(cells[0][index] | cells[1][index]) & BitBoards.FULL;
+    }
+
+    /** Returns the 9-bit mask of local boards that have been won or drawn. */
+    protected int getDecidedMask() {
+        return ~boardsInProgress & BitBoards.FULL;
+    }
+
+    /** Checks whether the local board at the specified index has been won or drawn. */
+    protected boolean isDecided(int index) {
+        return (boardsInProgress & (1 << index)) == 0;
     }
 
     /**
-     * Updates the global game status based on whether a player has won or the game is a draw.
+     * Determines whether a random move continuation is possible.
+     * This happens when the next board to play on is either undecided or already decided.
      *
-     * @param playerId The ID of the player who made the last move.
+     * @return true if a random continuation is possible, false otherwise.
      */
-    private void updateGlobalBoardStatus(int playerId) {
-        if (checkWin(decidedBoards, playerId)) {
-            status = Status.fromId(playerId);
-        } else if (checkGlobalDraw(decidedBoards)) {
-            status = Status.DRAW;
-        }
+    protected boolean randomContinuationPossible() {
+        var nextBoardIndex = getNextBoardIndex();
+
+        return nextBoardIndex == -1 || (nextBoardIndex >= 0 && isDecided(nextBoardIndex));
     }
 
     /**
-     * Updates the local board status based on whether it has been won or drawn.
+     * Determines which board the next move should be played on.
+     * Returns -1 if no board restriction exists.
      *
-     * @param localBoard The local board array.
-     * @param boardIndex The index of the local board.
-     * @param playerId   The ID of the player who made the move.
+     * @return The index of the next board to be played on, or -1 if unrestricted.
      */
-    private void updateLocalBoardStatus(int[] localBoard, int boardIndex, int playerId) {
-        if (checkWin(localBoard, playerId)) {
-            decidedBoards[boardIndex] = playerId;
-        } else if (checkLocalDraw(localBoard)) {
-            decidedBoards[boardIndex] = 0;
-        }
+    protected int getNextBoardIndex() {
+        return lastMove == Move.NONE ? -1 : Move.cellOf(lastMove);
+    }
+
+    /**
+     * Returns the index of the Zobrist key describing the next-board constraint:
+     * the forced board if it is still in progress, otherwise {@link Zobrist#FREE_CHOICE}.
+     */
+    private int getConstraintKey() {
+        int nextBoardIndex = getNextBoardIndex();
+        return nextBoardIndex != -1 && !isDecided(nextBoardIndex) ? nextBoardIndex : Zobrist.FREE_CHOICE;
     }
 
     /**
-     * Checks if the given player has won on the specified board.
+     * Returns the Zobrist key for the side to move, given the player who moved last.
+     * The AI is to move on an empty board and after every human move.
+     */
+    private static long getSideKey(Player lastPlayer) {
+        return lastPlayer == Player.AI ? Zobrist.HUMAN_TO_MOVE : 0L;
+    }
+
+    /**
+     * Restores the decided-board masks, the global status and the last move from a packed state.
      *
-     * @param board    The board to check.
-     * @param playerId The player ID to check for a win.
-     * @return true if the player has won, false otherwise.
+     * @param state The packed state returned by {@link #getUndoState()}.
      */
-    private boolean checkWin(int[] board, int playerId) {
-        for (WinningLine line : WinningLine.values()) {
-            int[] indices = line.getIndices();
-            if (board[indices[0]] == playerId &&
-                board[indices[1]] == playerId &&
-                board[indices[2]] == playerId) {
-                return true;
-            }
-        }
-        return false;
+    private void restoreUndoState(long state) {
+        wonBoards[0] = (int) (state & BitBoards.FULL);
+        wonBoards[1] = (int) (state >>> 9 & BitBoards.FULL);
+        drawnBoards = (int) (state >>> 18 & BitBoards.FULL);
+        status = STATUSES[(int) (state >>> 27 & 3)];
+        lastMove = (int) (state >>> 32) - 1;
+        boardsInProgress = ~(wonBoards[0] | wonBoards[1] | drawnBoards) & BitBoards.FULL;
     }
 
     /**
-     * Checks if a local board is full without a winner (a draw).
+     * Updates the global game status based on whether a player has won or the game is a draw.
+     * Only called when a local board has just been decided, since the global state cannot change otherwise.
      *
-     * @param board The local board to check.
-     * @return true if the board is a draw, false otherwise.
+     * @param playerIndex The index (player ID - 1) of the player who made the last move.
      */
-    private boolean checkLocalDraw(int[] board) {
-        return Arrays.stream(board).noneMatch(num -> num == 0);
+    private void updateGlobalBoardStatus(int playerIndex) {
+        if (BitBoards.isWin(wonBoards[playerIndex])) {
+            status = playerIndex == 0 ? Status.HUMAN_WIN : Status.AI_WIN;
+        } else if (boardsInProgress == 0) {
+            status = Status.DRAW;
+        }
     }
 
     /**
-     * Checks if the global game has ended in a draw.
+     * Updates the local board status based on whether it has been won or drawn.
      *
-     * @param board The decided boards array.
-     * @return true if all boards are decided without a winner, false otherwise.
+     * @param boardIndex  The index of the local board.
+     * @param playerIndex The index (player ID - 1) of the player who made the move.
+     * @return true if the local board has just been decided, false otherwise.
      */
-    private boolean checkGlobalDraw(int[] board) {
-        return Arrays.stream(board).noneMatch(num -> num == -1);
+    private boolean updateLocalBoardStatus(int boardIndex, int playerIndex) {
+        int bit = 1 << boardIndex;
+
+        if (BitBoards.isWin(cells[playerIndex][boardIndex])) {
+            drawnBoards &= ~bit;
+            wonBoards[1 - playerIndex] &= ~bit;
+            wonBoards[playerIndex] |= bit;
+            boardsInProgress &= ~bit;
+            return true;
+        } else if (BitBoards.isFull(cells[0][boardIndex] | cells[1][boardIndex])) {
+            drawnBoards |= bit;
+            boardsInProgress &= ~bit;
+            return true;
+        }
+        return false;
     }
 
 }
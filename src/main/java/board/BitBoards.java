@@ -0,0 +1,121 @@
+package board;
+
+import common.WinningLine;
+import common.XorShiftRandom;
+
+/**
+ * Precomputed lookup tables for 9-bit local board masks.
+ * Bit {@code i} of a mask corresponds to the cell with {@link common.Position} index {@code i}.
+ * Every table has one entry per possible mask (512), so wins, draws and empty cells
+ * are answered with a single array access instead of looping over the winning lines.
+ */
+public final class BitBoards {
+
+    /** Mask with all nine cells set. */
+    public static final int FULL = 0x1FF;
+
+    private static final boolean[] WINS = new boolean[FULL + 1];
+    private static final int[][] CELLS = new int[FULL + 1][];
+    private static final int[] WINNING_CELLS = new int[FULL + 1];
+
+    static {
+        for (int mask = 0; mask <= FULL; mask++) {
+            for (WinningLine line : WinningLine.values()) {
+                int lineMask = maskOf(line.getIndices());
+                if ((mask & lineMask) == lineMask) {
+                    WINS[mask] = true;
+                    break;
+                }
+            }
+
+            int[] cells = new int[Integer.bitCount(mask)];
+            for (int cell = 0, i = 0; cell < 9; cell++) {
+                if ((mask & (1 << cell)) != 0) {
+                    cells[i++] = cell;
+                }
+            }
+            CELLS[mask] = cells;
+        }
+
+        for (int mask = 0; mask <= FULL; mask++) {
+            for (int cell = 0; cell < 9; cell++) {
+                int bit = 1 << cell;
+                if ((mask & bit) == 0 && WINS[mask | bit]) {
+                    WINNING_CELLS[mask] |= bit;
+                }
+            }
+        }
+    }
+
+    private BitBoards() {
+    }
+
+    /**
+     * Checks whether the given mask contains a complete winning line.
+     *
+     * @param mask The 9-bit mask of one player's cells.
+     * @return true if the mask contains three in a row, false otherwise.
+     */
+    public static boolean isWin(int mask) {
+        return WINS[mask];
+    }
+
+    /**
+     * Checks whether all nine cells of the given mask are set.
+     *
+     * @param mask The 9-bit mask of occupied cells.
+     * @return true if no cell is left, false otherwise.
+     */
+    public static boolean isFull(int mask) {
+        return mask == FULL;
+    }
+
+    /**
+     * Returns the indices of all set bits in ascending order.
+     * The returned array is shared and must not be modified.
+     *
+     * @param mask A 9-bit mask.
+     * @return The cell indices contained in the mask.
+     */
+    public static int[] cellsOf(int mask) {
+        return CELLS[mask];
+    }
+
+    /**
+     * Returns the cells that would complete a winning line when added to the given mask.
+     * The opponent's cells are not taken into account; callers intersect the result with the empty cells.
+     *
+     * @param mask The 9-bit mask of one player's cells.
+     * @return The 9-bit mask of cells that win immediately.
+     */
+    public static int winningCells(int mask) {
+        return WINNING_CELLS[mask];
+    }
+
+    /**
+     * Picks a uniformly random set bit of a 9-bit mask.
+     *
+     * @param mask   The mask to choose from, must not be empty.
+     * @param random The generator to use.
+     * @return The index of the chosen bit.
+     */
+    public static int randomBit(int mask, XorShiftRandom random) {
+        int[] bits = CELLS[mask];
+        return bits[random.nextInt(bits.length)];
+    }
+
+    /**
+     * Builds a mask from a list of cell indices.
+     *
+     * @param indices The cell indices to set.
+     * @return The resulting 9-bit mask.
+     */
+    private static int maskOf(int... indices) {
+        int mask = 0;
+        for (int index : indices) {
+            mask |= 1 << index;
+        }
+        return mask;
+    }
+
+}
@@ -0,0 +1,45 @@
+package board;
+
+import common.XorShiftRandom;
+
+/**
+ * Mixes a greedy policy with uniformly random moves: with probability epsilon a random move is played,
+ * otherwise the move of the greedy policy. Some randomness keeps simulations diverse enough
+ * that the search does not mistake the greedy policy's blind spots for the truth.
+ */
+public class EpsilonGreedyPlayoutPolicy implements PlayoutPolicy {
+
+    private final PlayoutPolicy greedy;
+    private final double epsilon;
+
+    /**
+     * Creates an epsilon-greedy mix.
+     *
+     * @param greedy  The policy played with probability 1 - epsilon.
+     * @param epsilon The probability of a uniformly random move.
+     * @throws IllegalArgumentException if epsilon is not between 0 and 1.
+     */
+    public EpsilonGreedyPlayoutPolicy(PlayoutPolicy greedy, double epsilon) {
+        if (!(epsilon >= 0 && epsilon <= 1))
+            throw new IllegalArgumentException("Epsilon must be between 0 and 1! Actual: " + epsilon);
+
+        this.greedy = greedy;
+        this.epsilon = epsilon;
+    }
+
+    /**
+     * Selects a random move with probability epsilon, otherwise the greedy move.
+     *
+     * @param board          The board of the simulation.
+     * @param playableBoards The 9-bit mask of local boards the player may move on, never empty.
+     * @param playerIndex    The index (player ID - 1) of the player to move.
+     * @param random         The generator to use for random decisions.
+     * @return The index of the chosen move.
+     */
+    @Override
+    public int selectMove(MCTSBoard board, int playableBoards, int playerIndex, XorShiftRandom random) {
+        var policy = random.nextDouble() < epsilon ? PlayoutPolicy.UNIFORM : greedy;
+        return policy.selectMove(board, playableBoards, playerIndex, random);
+    }
+
+}
@@ -1,16 +1,24 @@
 package board;
 
+import common.Move;
+
+import java.util.ArrayList;
+import java.util.List;
+
 /**
  * Represents the global board in an Ultimate Tic-Tac-Toe game.
  * This board extends {@link BaseBoard} and provides game-specific validation logic.
  */
 public class GlobalBoard extends BaseBoard {
 
+    private final List<Move> moveHistory;
+
     /**
      * Default constructor that initializes an empty global board.
      */
     public GlobalBoard() {
         super();
+        moveHistory = new ArrayList<>();
     }
 
     /**
@@ -20,6 +28,23 @@ public class GlobalBoard extends BaseBoard {
      */
     public GlobalBoard(GlobalBoard other) {
         super(other);
+        moveHistory = new ArrayList<>(other.getMoveHistory());
+    }
+
+    /**
+     * Performs a packed move and records it in the move history.
+     *
+     * @param move The packed move to be performed, see {@link Move#encode}.
+     */
+    @Override
+    public void performMove(int move) {
+        super.performMove(move);
+        moveHistory.add(Move.of(move));
+    }
+
+    /** Returns the history of all moves made in the game. */
+    public List<Move> getMoveHistory() {
+        return moveHistory;
     }
 
     /**
@@ -30,18 +55,12 @@ public class GlobalBoard extends BaseBoard {
      * @return {@code true} if the move is valid, {@code false} otherwise.
      */
     public boolean isValidHumanMove(int boardIndex, int position) {
-        int nextBoardIndex = getNextBoardIndex();
-
-        // Determine which local board is currently playable
-        int[] localBoard = getBoardAt(randomContinuationPossible() ? boardIndex : nextBoardIndex);
-
         // Valid move conditions:
-        // - If random continuation is possible, the selected board must be undecided.
-        // - Otherwise, the boardIndex must match the expected next board.
-        // - The selected position in the local board must be empty (0).
-        return (randomContinuationPossible() ?
-                getDecidedBoards()[boardIndex] == -1 : boardIndex == nextBoardIndex)
-                && localBoard[position] == 0;
+        // - The selected board must be playable: the forced next board, or any undecided board
+        //   if a random continuation is possible.
+        // - The selected position in the local board must be empty.
+        return (getPlayableBoards() & (1 << boardIndex)) != 0
+                && (getEmptyCells(boardIndex) & (1 << position)) != 0;
     }
 
 }
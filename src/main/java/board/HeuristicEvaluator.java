@@ -0,0 +1,109 @@
+package board;
+
+import common.Player;
+import common.Status;
+
+/**
+ * Scores undecided positions by the features that decide most games of Ultimate Tic-Tac-Toe:
+ * <ul>
+ *     <li>control of decided local boards, with the center weighing most and corners more than edges,</li>
+ *     <li>two won boards in a line whose third board is still in progress (global threats),</li>
+ *     <li>local boards in progress on which a player can win with one move (local threats),</li>
+ *     <li>the constraint of the player to move: a free choice of boards is an advantage, and being sent to
+ *     a board the player can win on immediately is worth almost that board.</li>
+ * </ul>
+ * The weighted sum is squashed into the open interval of the win scores, so an evaluation never
+ * claims a decided game. Threats are read from {@link BitBoards#winningCells(int)} and nothing is allocated.
+ */
+public class HeuristicEvaluator implements PositionEvaluator {
+
+    /** The weight of a decided local board by its position on the global board. */
+    private static final int[] BOARD_WEIGHTS = {3, 2, 3, 2, 4, 2, 3, 2, 3};
+
+    private static final double GLOBAL_THREAT = 4;
+    private static final double LOCAL_THREAT = 0.5;
+    private static final double FREE_CHOICE = 1;
+    private static final double FORCED_WIN_FACTOR = 0.75;
+
+    /** The raw value at which the score reaches about three quarters of its maximum. */
+    private static final double SCALE = 10;
+
+    /** The largest score of an undecided position. */
+    private static final int MAX_SCORE = WIN_SCORE - 10;
+
+    /**
+     * Scores a position from the AI's point of view.
+     *
+     * @param board          The board to score.
+     * @param playableBoards The 9-bit mask of local boards the player to move may move on,
+     *                       or 0 if the game is decided.
+     * @param playerIndex    The index (player ID - 1) of the player to move.
+     * @return {@link #WIN_SCORE} or its negation for a decided game, 0 for a draw, and a score
+     *         strictly between these bounds otherwise.
+     */
+    @Override
+    public int evaluate(MCTSBoard board, int playableBoards, int playerIndex) {
+        if (!board.inProgress()) {
+            var status = board.getStatus();
+            if (status == Status.AI_WIN)
+                return WIN_SCORE;
+            if (status == Status.HUMAN_WIN)
+                return -WIN_SCORE;
+            return 0;
+        }
+
+        int aiIndex = Player.AI.getId() - 1;
+        double value = evaluateFor(board, aiIndex) - evaluateFor(board, aiIndex ^ 1);
+
+        double tempo = evaluateConstraint(board, playableBoards, playerIndex);
+        value += playerIndex == aiIndex ? tempo : -tempo;
+
+        return (int) Math.round(MAX_SCORE * Math.tanh(value / SCALE));
+    }
+
+    /**
+     * Sums the board control and threats of one player.
+     *
+     * @param board       The board to score.
+     * @param playerIndex The index of the player.
+     * @return The raw value of the player's position.
+     */
+    private static double evaluateFor(MCTSBoard board, int playerIndex) {
+        int wonBoards = board.getWonBoards(playerIndex);
+        int boardsInProgress = board.getBoardsInProgress();
+        double value = 0;
+
+        for (int remaining = wonBoards; remaining != 0; remaining &= remaining - 1) {
+            value += BOARD_WEIGHTS[Integer.numberOfTrailingZeros(remaining)];
+        }
+        value += GLOBAL_THREAT * Integer.bitCount(BitBoards.winningCells(wonBoards) & boardsInProgress);
+
+        for (int remaining = boardsInProgress; remaining != 0; remaining &= remaining - 1) {
+            int boardIndex = Integer.numberOfTrailingZeros(remaining);
+            if ((BitBoards.winningCells(board.getCells(playerIndex, boardIndex)) & board.getEmptyCells(boardIndex)) != 0)
+                value += LOCAL_THREAT;
+        }
+        return value;
+    }
+
+    /**
+     * Values the constraint of the player to move.
+     *
+     * @param board          The board to score.
+     * @param playableBoards The local boards the player may move on.
+     * @param playerIndex    The index of the player to move.
+     * @return The raw value of the constraint for the player to move.
+     */
+    private static double evaluateConstraint(MCTSBoard board, int playableBoards, int playerIndex) {
+        if (Integer.bitCount(playableBoards) != 1)
+            return FREE_CHOICE;
+
+        int boardIndex = Integer.numberOfTrailingZeros(playableBoards);
+        if ((BitBoards.winningCells(board.getCells(playerIndex, boardIndex)) & board.getEmptyCells(boardIndex)) == 0)
+            return 0;
+
+        boolean winsGame = (BitBoards.winningCells(board.getWonBoards(playerIndex)) & playableBoards) != 0;
+        return winsGame ? SCALE * 2 : FORCED_WIN_FACTOR * BOARD_WEIGHTS[boardIndex];
+    }
+
+}
@@ -2,35 +2,93 @@ package board;
 
 import common.Move;
 import common.Player;
-import common.Position;
 import common.Status;
+import common.XorShiftRandom;
 
-import java.util.Collections;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
-import java.util.Random;
-import java.util.stream.Collectors;
-import java.util.stream.IntStream;
 
 /**
  * Represents a board used specifically for Monte Carlo Tree Search (MCTS).
  * Extends {@link BaseBoard} and provides additional methods for AI move generation.
+ * It keeps no move history, only the last move and the side to move, so copying it costs
+ * the same at any point of the game.
  */
 public class MCTSBoard extends BaseBoard {
 
+    private static final ThreadLocal<int[]> PLAYOUT_SNAPSHOT = ThreadLocal.withInitial(() -> new int[18]);
+
+    /** Answers the status ID of the final position of a full playout. */
+    private static final PositionEvaluator FINAL_STATUS = (board, playableBoards, playerIndex) -> board.getStatus().getId();
+
+    private long[] undoStack;
+    private int undoSize;
+
     /**
      * Default constructor that initializes an empty MCTS board.
      */
     public MCTSBoard() {
         super();
+        undoStack = new long[16];
     }
 
     /**
      * Copy constructor that creates a deep copy of another MCTSBoard instance.
+     * The undo stack is not copied; the new board starts without any reversible moves.
      *
      * @param other The MCTSBoard instance to copy.
      */
     public MCTSBoard(MCTSBoard other) {
         super(other);
+        undoStack = new long[16];
+    }
+
+    /**
+     * Overwrites this board with the state of another board without allocating.
+     * Used to recycle the boards of pruned search nodes. The undo stack is cleared.
+     *
+     * @param other The board to copy.
+     */
+    public void copyFrom(MCTSBoard other) {
+        super.copyFrom(other);
+        undoSize = 0;
+    }
+
+    /**
+     * Performs a move that can later be taken back with {@link #undoMove()}.
+     * This allows the search to walk a single board down and back up the tree instead of copying it.
+     *
+     * @param move The move to be performed.
+     */
+    public void doMove(Move move) {
+        doMove(move.code());
+    }
+
+    /**
+     * Performs a packed move that can later be taken back with {@link #undoMove()}.
+     *
+     * @param move The packed move to be performed, see {@link Move#encode}.
+     */
+    public void doMove(int move) {
+        if (undoSize == undoStack.length) {
+            undoStack = Arrays.copyOf(undoStack, undoSize * 2);
+        }
+        undoStack[undoSize++] = getUndoState();
+        performMove(move);
+    }
+
+    /**
+     * Takes back the most recent move made with {@link #doMove(int)}.
+     * Restores the cell, the decided boards, the game status and the next-board constraint exactly.
+     *
+     * @throws IllegalStateException if there is no move to take back.
+     */
+    public void undoMove() {
+        if (undoSize == 0)
+            throw new IllegalStateException("No move to undo");
+
+        undoLastMove(undoStack[--undoSize]);
     }
 
     /**
@@ -39,27 +97,51 @@ public class MCTSBoard extends BaseBoard {
      * @return A list of valid moves.
      */
     public List<Move> getNextMoves() {
-        Move lastMove = getLastMove();
-        Player nextPlayer = (lastMove == null) ? Player.AI : lastMove.getOpponent();
+        int[] codes = new int[9];
+        int count = getNextMoves(codes);
+
+        List<Move> moves = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            moves.add(Move.of(codes[i]));
+        }
+        return moves;
+    }
+
+    /**
+     * Writes all possible next moves as packed codes into the given array.
+     * This is the allocation-free counterpart of {@link #getNextMoves()} used by the search tree.
+     *
+     * @param moves An array of at least 9 entries receiving the packed moves.
+     * @return The number of moves written.
+     */
+    public int getNextMoves(int[] moves) {
+        Player nextPlayer = getNextPlayer();
 
         // If it's the human player's turn and a random continuation is possible, no moves are available.
         if (nextPlayer == Player.HUMAN && randomContinuationPossible()) {
-            return Collections.emptyList();
+            return 0;
         }
 
-        // Determine the next board to play on, choosing randomly if necessary.
-        int nextBoardIndex = randomContinuationPossible() ? getRandomBoardIndex() : getNextBoardIndex();
-        var localBoard = getBoardAt(nextBoardIndex);
+        // Determine the next board to play on, choosing randomly among the playable boards if necessary.
+        int nextBoardIndex = getRandomBoardIndex();
+        int[] emptyCells = BitBoards.cellsOf(getEmptyCells(nextBoardIndex));
 
         // Generate all possible moves in the selected local board.
-        return IntStream.range(0, 9)
-                .filter(i -> localBoard[i] == 0)
-                .mapToObj(i -> new Move(
-                        nextBoardIndex,
-                        Position.fromIndex(i),
-                        nextPlayer)
-                )
-                .collect(Collectors.toList());
+        for (int i = 0; i < emptyCells.length; i++) {
+            moves[i] = Move.encode(nextBoardIndex, emptyCells[i], nextPlayer);
+        }
+        return emptyCells.length;
+    }
+
+    /**
+     * Checks whether {@link #getNextMoves(int[])} returns every legal move. This is only the case
+     * if the next board is forced; with a free choice, the moves of a single random board or no moves
+     * at all are returned.
+     *
+     * @return true if the next moves are all legal moves, false otherwise.
+     */
+    public boolean nextMovesComplete() {
+        return Integer.bitCount(getPlayableBoards()) == 1;
     }
 
     /**
@@ -67,49 +149,199 @@ public class MCTSBoard extends BaseBoard {
      * This is used in MCTS rollouts to simulate random play.
      */
     public void randomPlay() {
-        Move lastMove = getLastMove();
-        Player nextPlayer = lastMove.getOpponent();
+        performMove(getRandomMoveCode());
+    }
+
+    /**
+     * Creates a random valid move for the next player without performing it.
+     *
+     * @return A random legal move.
+     */
+    public Move getRandomMove() {
+        return Move.of(getRandomMoveCode());
+    }
 
+    /**
+     * Creates a random valid packed move for the next player without performing it.
+     *
+     * @return A random legal move, see {@link Move#encode}.
+     */
+    public int getRandomMoveCode() {
         // Determine the next board to play on.
-        int nextBoardIndex = randomContinuationPossible() ? getRandomBoardIndex() : getNextBoardIndex();
+        int nextBoardIndex = getRandomBoardIndex();
 
         // Select a random empty position within the chosen board.
-        int positionIndex = getRandomEmptyPosition(getBoardAt(nextBoardIndex));
-        Move nextMove = new Move(
-                nextBoardIndex,
-                Position.fromIndex(positionIndex),
-                nextPlayer
-        );
+        int positionIndex = getRandomEmptyPosition(getEmptyCells(nextBoardIndex));
+        return Move.encode(nextBoardIndex, positionIndex, getNextPlayer());
+    }
+
+    /**
+     * Plays uniformly random moves until the game is decided and returns the result.
+     * Stones are placed directly on the cell masks without creating {@link Move} objects or
+     * recording history, and the board is restored afterwards, so a playout allocates nothing.
+     *
+     * @param random The generator used to pick boards and cells.
+     * @return The ID of the final status (AI win, Human win, or draw).
+     */
+    public int playOut(XorShiftRandom random) {
+        return playOut(random, PlayoutPolicy.UNIFORM, null, null);
+    }
 
-        performMove(nextMove);
+    /**
+     * Plays uniformly random moves like {@link #playOut(XorShiftRandom)} and additionally adds the moves
+     * each player made during the playout to the given sets, as needed for all-moves-as-first statistics.
+     * The moves are read off the cell masks before the board is restored, so nothing is recorded per move.
+     *
+     * @param random     The generator used to pick boards and cells.
+     * @param humanMoves The set receiving the human's moves, or null to skip recording.
+     * @param aiMoves    The set receiving the AI's moves, or null to skip recording.
+     * @return The ID of the final status (AI win, Human win, or draw).
+     */
+    public int playOut(XorShiftRandom random, MoveSet humanMoves, MoveSet aiMoves) {
+        return playOut(random, PlayoutPolicy.UNIFORM, humanMoves, aiMoves);
     }
 
     /**
-     * Selects a random local board that is still in progress.
+     * Plays the moves chosen by the given policy until the game is decided and returns the result.
+     * Like {@link #playOut(XorShiftRandom, MoveSet, MoveSet)}, the moves of each player can be recorded
+     * and the board is restored afterwards.
      *
-     * @return The index of a random in-progress local board.
+     * @param random     The generator passed to the policy.
+     * @param policy     The policy choosing the moves of both players.
+     * @param humanMoves The set receiving the human's moves, or null to skip recording.
+     * @param aiMoves    The set receiving the AI's moves, or null to skip recording.
+     * @return The ID of the final status (AI win, Human win, or draw).
      */
-    private int getRandomBoardIndex() {
-        var boardsInProgress = getBoardsInProgress();
-        Random random = new Random();
+    public int playOut(XorShiftRandom random, PlayoutPolicy policy, MoveSet humanMoves, MoveSet aiMoves) {
+        return playOut(random, policy, Integer.MAX_VALUE, FINAL_STATUS, humanMoves, aiMoves);
+    }
+
+    /**
+     * Plays at most the given number of moves chosen by the policy and scores the position reached.
+     * If the game is decided earlier, the evaluator scores the final position.
+     * The moves of each player can be recorded, and the board is restored afterwards.
+     *
+     * @param random     The generator passed to the policy.
+     * @param policy     The policy choosing the moves of both players.
+     * @param maxMoves   The maximum number of moves to play.
+     * @param evaluator  The evaluator scoring the position reached.
+     * @param humanMoves The set receiving the human's moves, or null to skip recording.
+     * @param aiMoves    The set receiving the AI's moves, or null to skip recording.
+     * @return The score of the evaluator.
+     */
+    public int playOut(XorShiftRandom random, PlayoutPolicy policy, int maxMoves, PositionEvaluator evaluator,
+                       MoveSet humanMoves, MoveSet aiMoves) {
+        int playerIndex = getNextPlayer().getId() - 1;
+        if (!inProgress()) {
+            return evaluator.evaluate(this, 0, playerIndex);
+        }
+
+        int[] snapshot = PLAYOUT_SNAPSHOT.get();
+        saveCells(snapshot);
+        long state = getUndoState();
+        int nextBoardIndex = getNextBoardIndex();
+
+        for (int moves = 0; moves < maxMoves && inProgress(); moves++) {
+            int move = policy.selectMove(this, playableBoards(nextBoardIndex), playerIndex, random);
+            int cell = move % 9;
+            placeCell(move / 9, cell, playerIndex);
+
+            nextBoardIndex = cell;
+            playerIndex ^= 1;
+        }
+
+        int result = evaluator.evaluate(this, inProgress() ? playableBoards(nextBoardIndex) : 0, playerIndex);
+        if (humanMoves != null && aiMoves != null) {
+            for (int boardIndex = 0; boardIndex < 9; boardIndex++) {
+                humanMoves.addBoard(boardIndex, getCells(0, boardIndex) & ~snapshot[boardIndex]);
+                aiMoves.addBoard(boardIndex, getCells(1, boardIndex) & ~snapshot[9 + boardIndex]);
+            }
+        }
+        restoreCells(snapshot, state);
+        return result;
+    }
+
+    /**
+     * Computes the local boards a player may move on during a playout.
+     *
+     * @param nextBoardIndex The board the previous move sent the player to, or -1 on an empty board.
+     * @return The forced board, or all boards in progress if the player has a free choice.
+     */
+    private int playableBoards(int nextBoardIndex) {
+        return nextBoardIndex == -1 || isDecided(nextBoardIndex) ? getBoardsInProgress() : 1 << nextBoardIndex;
+    }
 
-        return boardsInProgress.get(random.nextInt(boardsInProgress.size()));
+    /**
+     * Returns the player to move next. The AI moves first on an empty board.
+     *
+     * @return The player whose turn it is.
+     */
+    public Player getNextPlayer() {
+        Player lastPlayer = getLastPlayer();
+        return (lastPlayer == null || lastPlayer == Player.HUMAN) ? Player.AI : Player.HUMAN;
+    }
+
+    /**
+     * Selects a random local board among the playable boards.
+     * If the next board is forced, this is always the forced board.
+     *
+     * @return The index of a random playable local board.
+     */
+    private int getRandomBoardIndex() {
+        return BitBoards.randomBit(getPlayableBoards(), XorShiftRandom.current());
     }
 
     /**
      * Selects a random empty position within a given local board.
      *
-     * @param board The local board to search in.
+     * @param emptyCells The 9-bit mask of empty cells of the local board.
      * @return The index of a randomly chosen empty position.
      */
-    private int getRandomEmptyPosition(int[] board) {
-        List<Integer> emptyPositions = IntStream.range(0, 9)
-                .filter(i -> board[i] == 0)
-                .boxed()
-                .toList();
+    private int getRandomEmptyPosition(int emptyCells) {
+        return BitBoards.randomBit(emptyCells, XorShiftRandom.current());
+    }
+
+    /**
+     * Counts the empty cells of the local boards still in progress, an upper bound on the number
+     * of moves left in the game.
+     *
+     * @return The number of open cells.
+     */
+    public int countOpenCells() {
+        int count = 0;
+        for (int remaining = getBoardsInProgress(); remaining != 0; remaining &= remaining - 1) {
+            count += Integer.bitCount(getEmptyCells(Integer.numberOfTrailingZeros(remaining)));
+        }
+        return count;
+    }
+
+    /**
+     * Returns the empty cells of a local board on which the given player would complete a line.
+     *
+     * @param player     The player.
+     * @param boardIndex The index of the local board.
+     * @return The 9-bit mask of cells winning the local board immediately, empty if the board is decided.
+     */
+    public int getWinningCells(Player player, int boardIndex) {
+        if (isDecided(boardIndex))
+            return 0;
+        return BitBoards.winningCells(getCells(player.getId() - 1, boardIndex)) & getEmptyCells(boardIndex);
+    }
+
+    /**
+     * Checks whether a move of the next player would let the opponent choose any board,
+     * because the board the move sends them to is decided afterwards.
+     *
+     * @param boardIndex The index of the local board of the move.
+     * @param cell       The cell of the move.
+     * @return true if the opponent gets a free choice, false if they are forced to board {@code cell}.
+     */
+    public boolean givesFreeChoice(int boardIndex, int cell) {
+        if (cell != boardIndex)
+            return isDecided(cell);
 
-        Random random = new Random();
-        return emptyPositions.get(random.nextInt(emptyPositions.size()));
+        int bit = 1 << cell;
+        return (getWinningCells(getNextPlayer(), boardIndex) & bit) != 0 || getEmptyCells(boardIndex) == bit;
     }
 
     /**
@@ -0,0 +1,116 @@
+package board;
+
+/**
+ * A set of moves on the global board packed into 81 bits.
+ * Bit {@code boardIndex * 9 + cell} is set if the move on that cell is contained.
+ * Bits 0-63 are stored in a {@code long}, bits 64-80 in an {@code int}, so a set can be
+ * filled, copied and queried without allocating.
+ */
+public final class MoveSet {
+
+    /** Number of cells on the global board. */
+    public static final int SIZE = 81;
+
+    private long low;
+    private int high;
+
+    /**
+     * Computes the bit index of a move.
+     *
+     * @param boardIndex The index of the local board.
+     * @param cell       The cell index within the local board.
+     * @return The index of the move in the set.
+     */
+    public static int indexOf(int boardIndex, int cell) {
+        return boardIndex * 9 + cell;
+    }
+
+    /** Removes all moves from the set. */
+    public void clear() {
+        low = 0;
+        high = 0;
+    }
+
+    /**
+     * Adds a single move to the set.
+     *
+     * @param index The move index, see {@link #indexOf(int, int)}.
+     */
+    public void add(int index) {
+        if (index < 64) {
+            low |= 1L << index;
+        } else {
+            high |= 1 << (index - 64);
+        }
+    }
+
+    /**
+     * Adds all empty cells of a local board to the set.
+     *
+     * @param boardIndex The index of the local board.
+     * @param cells      The 9-bit mask of cells to add.
+     */
+    public void addBoard(int boardIndex, int cells) {
+        int shift = boardIndex * 9;
+        if (shift + 9 <= 64) {
+            low |= (long) cells << shift;
+        } else if (shift >= 64) {
+            high |= cells << (shift - 64);
+        } else {
+            low |= (long) cells << shift;
+            high |= cells >>> (64 - shift);
+        }
+    }
+
+    /**
+     * Checks whether the move with the given index is contained in the set.
+     *
+     * @param index The move index, see {@link #indexOf(int, int)}.
+     * @return true if the move is contained, false otherwise.
+     */
+    public boolean contains(int index) {
+        return index < 64 ? (low & (1L << index)) != 0 : (high & (1 << (index - 64))) != 0;
+    }
+
+    /** Returns the number of moves in the set. */
+    public int size() {
+        return Long.bitCount(low) + Integer.bitCount(high);
+    }
+
+    /** Returns true if the set contains no moves. */
+    public boolean isEmpty() {
+        return low == 0 && high == 0;
+    }
+
+    /**
+     * Returns the index of the first move at or after the given index.
+     *
+     * @param from The index to start searching from.
+     * @return The index of the next contained move, or -1 if there is none.
+     */
+    public int nextIndex(int from) {
+        if (from < 64) {
+            long remaining = low & (-1L << from);
+            if (remaining != 0) {
+                return Long.numberOfTrailingZeros(remaining);
+            }
+            from = 64;
+        }
+        if (from >= SIZE) {
+            return -1;
+        }
+        int remaining = high & (-1 << (from - 64));
+        return remaining != 0 ? 64 + Integer.numberOfTrailingZeros(remaining) : -1;
+    }
+
+    /** Returns the lower 64 bits of the set. */
+    public long getLow() {
+        return low;
+    }
+
+    /** Returns the upper 17 bits of the set. */
+    public int getHigh() {
+        return high;
+    }
+
+}
@@ -0,0 +1,27 @@
+package board;
+
+import common.XorShiftRandom;
+
+/**
+ * Chooses the moves of a simulated game in {@link MCTSBoard#playOut(XorShiftRandom, PlayoutPolicy, MoveSet, MoveSet)}.
+ * A policy is called once per simulated move and must not allocate or modify the board;
+ * it reads the cell masks and answers with the move to play.
+ * Policies are stateless and can be shared between threads.
+ */
+public interface PlayoutPolicy {
+
+    /** Plays uniformly random moves. */
+    PlayoutPolicy UNIFORM = new UniformPlayoutPolicy();
+
+    /**
+     * Selects the next move of a simulated game.
+     *
+     * @param board          The board of the simulation.
+     * @param playableBoards The 9-bit mask of local boards the player may move on, never empty.
+     * @param playerIndex    The index (player ID - 1) of the player to move.
+     * @param random         The generator to use for random decisions.
+     * @return The move as {@link MoveSet#indexOf(int, int)} index, on an empty cell of a playable board.
+     */
+    int selectMove(MCTSBoard board, int playableBoards, int playerIndex, XorShiftRandom random);
+
+}
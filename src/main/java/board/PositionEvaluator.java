@@ -0,0 +1,37 @@
+package board;
+
+/**
+ * Scores a position reached by a simulation, so that playouts can stop before the game is decided.
+ * Scores use the scale of the MCTS win scores: from the AI's point of view,
+ * {@link #WIN_SCORE} for a won game, its negation for a lost game and 0 for a draw.
+ * Undecided positions should score strictly between these bounds.
+ * Like a {@link PlayoutPolicy}, an evaluator must not allocate or modify the board.
+ */
+public interface PositionEvaluator {
+
+    /** The score of a game won by the AI. */
+    int WIN_SCORE = 100;
+
+    /**
+     * Scores a position.
+     *
+     * @param board          The board to score.
+     * @param playableBoards The 9-bit mask of local boards the player to move may move on,
+     *                       or 0 if the game is decided.
+     * @param playerIndex    The index (player ID - 1) of the player to move.
+     * @return The score from the AI's point of view.
+     */
+    int evaluate(MCTSBoard board, int playableBoards, int playerIndex);
+
+    /**
+     * Scores a position outside a playout, deriving the playable boards and the player to move from the board.
+     *
+     * @param board The board to score.
+     * @return The score from the AI's point of view.
+     */
+    default int evaluate(MCTSBoard board) {
+        int playableBoards = board.inProgress() ? board.getPlayableBoards() : 0;
+        return evaluate(board, playableBoards, board.getNextPlayer().getId() - 1);
+    }
+
+}
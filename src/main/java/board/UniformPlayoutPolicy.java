@@ -0,0 +1,25 @@
+package board;
+
+import common.XorShiftRandom;
+
+/**
+ * Plays a uniformly random empty cell of a uniformly random playable board.
+ */
+public class UniformPlayoutPolicy implements PlayoutPolicy {
+
+    /**
+     * Selects a random move.
+     *
+     * @param board          The board of the simulation.
+     * @param playableBoards The 9-bit mask of local boards the player may move on, never empty.
+     * @param playerIndex    The index (player ID - 1) of the player to move.
+     * @param random         The generator to use.
+     * @return The index of the chosen move.
+     */
+    @Override
+    public int selectMove(MCTSBoard board, int playableBoards, int playerIndex, XorShiftRandom random) {
+        int boardIndex = BitBoards.randomBit(playableBoards, random);
+        return MoveSet.indexOf(boardIndex, BitBoards.randomBit(board.getEmptyCells(boardIndex), random));
+    }
+
+}
@@ -0,0 +1,83 @@
+package board;
+
+import common.XorShiftRandom;
+
+/**
+ * Plays like a careful beginner: it takes an immediate win, otherwise blocks the opponent's
+ * immediate win, and otherwise falls back to another policy.
+ * <p>
+ * Wins and threats are read from {@link BitBoards#winningCells(int)}, so each playable board costs
+ * two table lookups. A local win that also wins the global board is preferred over any other local win,
+ * and blocking a local win that would decide the game is preferred over any other block.
+ */
+public class WinBlockPlayoutPolicy implements PlayoutPolicy {
+
+    private final PlayoutPolicy fallback;
+
+    /**
+     * Creates the policy with uniformly random moves as fallback.
+     */
+    public WinBlockPlayoutPolicy() {
+        this(PlayoutPolicy.UNIFORM);
+    }
+
+    /**
+     * Creates the policy with the given fallback.
+     *
+     * @param fallback The policy used if there is nothing to win or block.
+     */
+    public WinBlockPlayoutPolicy(PlayoutPolicy fallback) {
+        this.fallback = fallback;
+    }
+
+    /**
+     * Selects a winning move, else a blocking move, else a move of the fallback policy.
+     *
+     * @param board          The board of the simulation.
+     * @param playableBoards The 9-bit mask of local boards the player may move on, never empty.
+     * @param playerIndex    The index (player ID - 1) of the player to move.
+     * @param random         The generator to use for random decisions.
+     * @return The index of the chosen move.
+     */
+    @Override
+    public int selectMove(MCTSBoard board, int playableBoards, int playerIndex, XorShiftRandom random) {
+        int opponentIndex = playerIndex ^ 1;
+        int gameWinningBoards = BitBoards.winningCells(board.getWonBoards(playerIndex));
+        int gameLosingBoards = BitBoards.winningCells(board.getWonBoards(opponentIndex));
+        int win = -1;
+        int block = -1;
+        boolean criticalBlock = false;
+
+        for (int remaining = playableBoards; remaining != 0; remaining &= remaining - 1) {
+            int boardIndex = Integer.numberOfTrailingZeros(remaining);
+            int boardBit = 1 << boardIndex;
+            int empty = board.getEmptyCells(boardIndex);
+
+            int wins = BitBoards.winningCells(board.getCells(playerIndex, boardIndex)) & empty;
+            if (wins != 0) {
+                int move = MoveSet.indexOf(boardIndex, BitBoards.randomBit(wins, random));
+                if ((gameWinningBoards & boardBit) != 0)
+                    return move;
+                if (win == -1)
+                    win = move;
+                continue;
+            }
+
+            if (win != -1 || criticalBlock)
+                continue;
+
+            int blocks = BitBoards.winningCells(board.getCells(opponentIndex, boardIndex)) & empty;
+            if (blocks != 0 && (block == -1 || (gameLosingBoards & boardBit) != 0)) {
+                block = MoveSet.indexOf(boardIndex, BitBoards.randomBit(blocks, random));
+                criticalBlock = (gameLosingBoards & boardBit) != 0;
+            }
+        }
+
+        if (win != -1)
+            return win;
+        if (block != -1)
+            return block;
+        return fallback.selectMove(board, playableBoards, playerIndex, random);
+    }
+
+}
@@ -0,0 +1,37 @@
+package board;
+
+import common.XorShiftRandom;
+
+/**
+ * Random keys for Zobrist hashing of Ultimate Tic-Tac-Toe positions.
+ * A position hash is the XOR of one key per occupied cell and player, one key if the human is to move
+ * and one key for the forced next board (or for a free choice of board).
+ * The keys are generated from a fixed seed, so hashes are stable across runs.
+ */
+final class Zobrist {
+
+    /** Index into {@link #NEXT_BOARD} used when the next move may be played on any board in progress. */
+    static final int FREE_CHOICE = 9;
+
+    static final long[][] CELLS = new long[2][81];
+    static final long[] NEXT_BOARD = new long[10];
+    static final long HUMAN_TO_MOVE;
+
+    static {
+        var random = new XorShiftRandom(0x5EED_2B0A_11CEL);
+
+        for (long[] playerKeys : CELLS) {
+            for (int i = 0; i < playerKeys.length; i++) {
+                playerKeys[i] = random.nextLong();
+            }
+        }
+        for (int i = 0; i < NEXT_BOARD.length; i++) {
+            NEXT_BOARD[i] = random.nextLong();
+        }
+        HUMAN_TO_MOVE = random.nextLong();
+    }
+
+    private Zobrist() {
+    }
+
+}
@@ -1,9 +1,81 @@
 package common;
 
+/**
+ * A move of a player on one cell of the global board.
+ * Inside the search, moves are handled as packed {@code int} codes: {@code boardIndex * 9 + cell},
+ * plus 81 for moves of the AI. The 162 possible moves exist as canonical instances,
+ * which {@link #of(int)} returns without allocating.
+ */
 public record Move(int boardIndex, Position position, Player player) {
 
+    /** Code used when there is no move, e.g. for the root of the search tree. */
+    public static final int NONE = -1;
+
+    private static final int AI_OFFSET = 81;
+    private static final Move[] MOVES = new Move[2 * AI_OFFSET];
+
+    static {
+        for (int code = 0; code < MOVES.length; code++) {
+            MOVES[code] = new Move(boardOf(code), Position.fromIndex(cellOf(code)), playerOf(code));
+        }
+    }
+
     public Player getOpponent() {
         return player == Player.AI ? Player.HUMAN : Player.AI;
     }
 
+    /** Returns the packed code of this move. */
+    public int code() {
+        return encode(boardIndex, position.getIndex(), player);
+    }
+
+    /**
+     * Returns the canonical instance for a packed move code.
+     *
+     * @param code The packed move, or {@link #NONE}.
+     * @return The canonical move, or null for {@link #NONE}.
+     */
+    public static Move of(int code) {
+        return code == NONE ? null : MOVES[code];
+    }
+
+    /**
+     * Returns the canonical instance for a move.
+     *
+     * @param boardIndex The index of the local board.
+     * @param position   The position within the local board.
+     * @param player     The player making the move.
+     * @return The canonical move.
+     */
+    public static Move of(int boardIndex, Position position, Player player) {
+        return MOVES[encode(boardIndex, position.getIndex(), player)];
+    }
+
+    /**
+     * Packs a move into a single int.
+     *
+     * @param boardIndex The index of the local board.
+     * @param cell       The cell index within the local board.
+     * @param player     The player making the move.
+     * @return The packed move.
+     */
+    public static int encode(int boardIndex, int cell, Player player) {
+        return boardIndex * 9 + cell + (player == Player.AI ? AI_OFFSET : 0);
+    }
+
+    /** Returns the local board index of a packed move. */
+    public static int boardOf(int code) {
+        return (code % AI_OFFSET) / 9;
+    }
+
+    /** Returns the cell index of a packed move. */
+    public static int cellOf(int code) {
+        return code % 9;
+    }
+
+    /** Returns the player of a packed move. */
+    public static Player playerOf(int code) {
+        return code >= AI_OFFSET ? Player.AI : Player.HUMAN;
+    }
+
 }
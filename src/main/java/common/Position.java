@@ -12,6 +12,8 @@ public enum Position {
     BOTTOM_CENTER(7),
     BOTTOM_RIGHT(8);
 
+    private static final Position[] VALUES = values();
+
     private final int index;
 
     Position(int index) {
@@ -23,12 +25,10 @@ public enum Position {
     }
 
     public static Position fromIndex(int index) {
-        for (Position position : Position.values()) {
-            if (position.getIndex() == index) {
-                return position;
-            }
+        if (index < 0 || index >= VALUES.length) {
+            throw new IllegalArgumentException("Invalid index: " + index);
         }
-        throw new IllegalArgumentException("Invalid index: " + index);
+        return VALUES[index];
     }
 
 }
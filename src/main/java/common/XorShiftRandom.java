@@ -0,0 +1,81 @@
+package common;
+
+/**
+ * A small, fast xorshift64* pseudo-random number generator.
+ * Unlike {@link java.util.Random} it is not synchronized and keeps its whole state in a single {@code long},
+ * so drawing a number never allocates. Each thread gets its own instance through {@link #current()}.
+ */
+public final class XorShiftRandom {
+
+    private static final ThreadLocal<XorShiftRandom> CURRENT =
+            ThreadLocal.withInitial(() -> new XorShiftRandom(System.nanoTime() ^ Thread.currentThread().getId()));
+
+    private long state;
+
+    /**
+     * Creates a generator with the given seed.
+     *
+     * @param seed The initial seed. A seed of 0 is replaced by a fixed non-zero constant.
+     */
+    public XorShiftRandom(long seed) {
+        state = mix(seed);
+        if (state == 0) {
+            state = 0x9E3779B97F4A7C15L;
+        }
+    }
+
+    /**
+     * Returns the generator of the current thread.
+     *
+     * @return The thread-local generator.
+     */
+    public static XorShiftRandom current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * Returns the next pseudo-random 64-bit value.
+     *
+     * @return A pseudo-random long.
+     */
+    public long nextLong() {
+        long x = state;
+        x ^= x >>> 12;
+        x ^= x << 25;
+        x ^= x >>> 27;
+        state = x;
+        return x * 0x2545F4914F6CDD1DL;
+    }
+
+    /**
+     * Returns a pseudo-random value between 0 (inclusive) and the given bound (exclusive).
+     *
+     * @param bound The upper bound, must be positive.
+     * @return A pseudo-random int in {@code [0, bound)}.
+     */
+    public int nextInt(int bound) {
+        return (int) (((nextLong() >>> 32) * bound) >>> 32);
+    }
+
+    /**
+     * Returns a pseudo-random value between 0.0 (inclusive) and 1.0 (exclusive).
+     *
+     * @return A pseudo-random double.
+     */
+    public double nextDouble() {
+        return (nextLong() >>> 11) * 0x1.0p-53;
+    }
+
+    /**
+     * Spreads the bits of a seed so that similar seeds produce unrelated sequences (SplitMix64 finalizer).
+     *
+     * @param z The seed to mix.
+     * @return The mixed seed.
+     */
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+}
@@ -0,0 +1,388 @@
+package engine;
+
+import board.HeuristicEvaluator;
+import board.MCTSBoard;
+import board.MoveSet;
+import board.PositionEvaluator;
+import common.Move;
+import common.Player;
+import common.Status;
+import mcts.SearchLimits;
+
+/**
+ * A decision engine based on iterative-deepening alpha-beta search.
+ * <p>
+ * Each move is searched to depth 1, 2, 3, ... until the time budget runs out; the best move of the deepest
+ * completed iteration is played. Leaves are scored by a {@link PositionEvaluator}, decided games by the
+ * distance to the end, so that faster wins are preferred. Moves are searched in the order: best move of the
+ * transposition table, local wins, blocks of the opponent's local wins, then by the history of earlier cutoffs.
+ * Moves giving the opponent a free choice of board are searched later, and moves sending the opponent
+ * to a board they can win immediately come last.
+ * <p>
+ * The transposition table keeps one entry per slot. An entry of another position is always replaced,
+ * an entry of the same position only by a search at least as deep.
+ * The engine plays whichever player is to move, so it can take either side. It is not thread-safe.
+ */
+public class AlphaBetaEngine implements SearchEngine {
+
+    /** Default number of transposition table entries. */
+    public static final int DEFAULT_TABLE_SIZE = 1 << 20;
+
+    /** The deepest possible search: the number of cells. */
+    public static final int MAX_DEPTH = MoveSet.SIZE;
+
+    private static final int MATE = 10_000;
+    private static final int INFINITY = MATE + 1;
+    private static final int CLOCK_CHECK_INTERVAL = 1024;
+
+    private static final int EXACT = 1;
+    private static final int LOWER_BOUND = 2;
+    private static final int UPPER_BOUND = 3;
+
+    private static final int TABLE_MOVE_SCORE = 1 << 24;
+    private static final int LOCAL_WIN_SCORE = 1 << 22;
+    private static final int BLOCK_SCORE = 1 << 21;
+    private static final int GIFT_PENALTY = 1 << 20;
+    private static final int FREE_CHOICE_PENALTY = 1 << 19;
+
+    private final MCTSBoard position = new MCTSBoard();
+    private final PositionEvaluator evaluator;
+    private final long[] keys;
+    private final int[] values;
+    private final int[] infos;
+    private final int mask;
+    private final int[][] moves = new int[MAX_DEPTH + 1][MoveSet.SIZE];
+    private final int[][] moveScores = new int[MAX_DEPTH + 1][MoveSet.SIZE];
+    private final int[][] history = new int[2][MoveSet.SIZE];
+    private final MoveSet legalMoves = new MoveSet();
+
+    private long timeNanos;
+    private int maxDepth = MAX_DEPTH;
+    private long deadline;
+    private long nodes;
+    private boolean aborted;
+    private int completedDepth;
+    private int rootMove;
+
+    /**
+     * Constructs an engine with the time budget of an AI difficulty level
+     * and a transposition table of {@link #DEFAULT_TABLE_SIZE} entries.
+     *
+     * @param aiLevel The difficulty level (1 to 10) determining the time per move.
+     * @throws IllegalArgumentException if the level is out of range.
+     */
+    public AlphaBetaEngine(int aiLevel) {
+        this(aiLevel, DEFAULT_TABLE_SIZE, new HeuristicEvaluator());
+    }
+
+    /**
+     * Constructs an engine.
+     *
+     * @param aiLevel   The difficulty level (1 to 10) determining the time per move.
+     * @param tableSize The number of transposition table entries, must be a power of two.
+     * @param evaluator The evaluator scoring the leaves of the search.
+     * @throws IllegalArgumentException if the level is out of range or the table size is not a power of two.
+     */
+    public AlphaBetaEngine(int aiLevel, int tableSize, PositionEvaluator evaluator) {
+        if (tableSize < 1 || Integer.bitCount(tableSize) != 1)
+            throw new IllegalArgumentException("Table size must be a power of two! Actual: " + tableSize);
+
+        timeNanos = SearchLimits.forLevel(aiLevel).timeNanos();
+        this.evaluator = evaluator;
+        keys = new long[tableSize];
+        values = new int[tableSize];
+        infos = new int[tableSize];
+        mask = tableSize - 1;
+    }
+
+    /**
+     * Replaces the time budget of each move.
+     *
+     * @param millis The search time per move in milliseconds.
+     * @throws IllegalArgumentException if the time is not positive.
+     */
+    public void setTimeLimit(long millis) {
+        if (millis < 1)
+            throw new IllegalArgumentException("Time must be positive! Actual: " + millis);
+
+        timeNanos = millis * 1_000_000L;
+    }
+
+    /**
+     * Limits the depth of the search, e.g. for reproducible benchmarks. The time budget still applies.
+     *
+     * @param maxDepth The maximum depth, {@link #MAX_DEPTH} by default.
+     * @throws IllegalArgumentException if the depth is out of range.
+     */
+    public void setMaxDepth(int maxDepth) {
+        if (maxDepth < 1 || maxDepth > MAX_DEPTH)
+            throw new IllegalArgumentException("Depth must be between 1 and " + MAX_DEPTH + "! Actual: " + maxDepth);
+
+        this.maxDepth = maxDepth;
+    }
+
+    /**
+     * Searches the current position and plays the best move found.
+     *
+     * @return The chosen move.
+     * @throws IllegalStateException if the game is already decided.
+     */
+    @Override
+    public Move getNextMove() {
+        if (!position.inProgress())
+            throw new IllegalStateException("Game is already decided");
+
+        int move = search();
+        position.performMove(move);
+        return Move.of(move);
+    }
+
+    /**
+     * Plays the opponent's move on the engine's position.
+     *
+     * @param move The opponent's move.
+     */
+    @Override
+    public void applyOpponentMove(Move move) {
+        position.performMove(move);
+    }
+
+    /**
+     * Retrieves the depth of the deepest completed iteration of the last search.
+     *
+     * @return The completed depth.
+     */
+    public int getCompletedDepth() {
+        return completedDepth;
+    }
+
+    /**
+     * Retrieves the number of positions visited by the last search.
+     *
+     * @return The node count.
+     */
+    public long getNodes() {
+        return nodes;
+    }
+
+    /**
+     * Runs the iterative deepening loop on a copy of the current position.
+     *
+     * @return The packed best move of the deepest completed iteration.
+     */
+    private int search() {
+        var board = new MCTSBoard(position);
+        deadline = System.nanoTime() + timeNanos;
+        nodes = 0;
+        aborted = false;
+        completedDepth = 0;
+        for (int[] scores : history) {
+            for (int i = 0; i < scores.length; i++)
+                scores[i] >>= 1;
+        }
+
+        int bestMove = Move.NONE;
+        int openCells = board.countOpenCells();
+        for (int depth = 1; depth <= maxDepth; depth++) {
+            int value = negamax(board, depth, -INFINITY, INFINITY, 0);
+            if (aborted)
+                break;
+
+            bestMove = rootMove;
+            completedDepth = depth;
+            // Stop once the result is proven or the whole game has been searched.
+            if (Math.abs(value) >= MATE - MAX_DEPTH || depth >= openCells)
+                break;
+        }
+        return bestMove;
+    }
+
+    /**
+     * Searches a position with alpha-beta pruning.
+     *
+     * @param board The position, restored before returning.
+     * @param depth The remaining depth.
+     * @param alpha The score the player to move is already guaranteed.
+     * @param beta  The score the opponent is already guaranteed, negated.
+     * @param ply   The distance from the root.
+     * @return The score of the position for the player to move, or a bound outside the window.
+     */
+    private int negamax(MCTSBoard board, int depth, int alpha, int beta, int ply) {
+        // The first iteration always completes, so that there is a move to play.
+        if (++nodes % CLOCK_CHECK_INTERVAL == 0 && completedDepth > 0 && System.nanoTime() >= deadline)
+            aborted = true;
+        if (aborted)
+            return 0;
+
+        // The previous move decided the game, so the player to move cannot have won.
+        if (!board.inProgress())
+            return board.getStatus() == Status.DRAW ? 0 : -(MATE - ply);
+        if (depth == 0)
+            return evaluate(board);
+
+        long hash = board.getHash();
+        int slot = (int) hash & mask;
+        int tableMove = -1;
+        if (keys[slot] == hash && infos[slot] != 0) {
+            int info = infos[slot];
+            tableMove = (info & 0xFF) - 1;
+            if (ply > 0 && info >>> 10 >= depth) {
+                int value = fromTable(values[slot], ply);
+                int flag = info >>> 8 & 3;
+                if (flag == EXACT || (flag == LOWER_BOUND && value >= beta) || (flag == UPPER_BOUND && value <= alpha))
+                    return value;
+            }
+        }
+
+        var player = board.getNextPlayer();
+        int count = generateMoves(board, player, ply, tableMove);
+        int[] plyMoves = moves[ply];
+        int originalAlpha = alpha;
+        int best = -INFINITY;
+        int bestMove = -1;
+
+        for (int i = 0; i < count; i++) {
+            selectNext(ply, i, count);
+            int index = plyMoves[i];
+            board.doMove(Move.encode(index / 9, index % 9, player));
+            int value = -negamax(board, depth - 1, -beta, -alpha, ply + 1);
+            board.undoMove();
+
+            if (aborted)
+                return 0;
+            if (value > best) {
+                best = value;
+                bestMove = index;
+                if (value > alpha)
+                    alpha = value;
+                if (alpha >= beta) {
+                    history[player.getId() - 1][index] += depth * depth;
+                    break;
+                }
+            }
+        }
+
+        if (ply == 0)
+            rootMove = Move.encode(bestMove / 9, bestMove % 9, player);
+
+        if (keys[slot] != hash || infos[slot] >>> 10 <= depth) {
+            int flag = best <= originalAlpha ? UPPER_BOUND : best >= beta ? LOWER_BOUND : EXACT;
+            keys[slot] = hash;
+            values[slot] = toTable(best, ply);
+            infos[slot] = depth << 10 | flag << 8 | (bestMove + 1);
+        }
+        return best;
+    }
+
+    /**
+     * Writes the legal moves of a position and their ordering scores into the buffers of a ply.
+     *
+     * @param board     The position.
+     * @param player    The player to move.
+     * @param ply       The distance from the root.
+     * @param tableMove The move index stored in the transposition table, or -1.
+     * @return The number of moves.
+     */
+    private int generateMoves(MCTSBoard board, Player player, int ply, int tableMove) {
+        var opponent = player == Player.AI ? Player.HUMAN : Player.AI;
+        int[] playerHistory = history[player.getId() - 1];
+        board.getLegalMoves(legalMoves);
+
+        int count = 0;
+        for (int index = legalMoves.nextIndex(0); index >= 0; index = legalMoves.nextIndex(index + 1)) {
+            int boardIndex = index / 9;
+            int cell = index % 9;
+            int bit = 1 << cell;
+
+            int score = playerHistory[index];
+            if (index == tableMove)
+                score += TABLE_MOVE_SCORE;
+            if ((board.getWinningCells(player, boardIndex) & bit) != 0)
+                score += LOCAL_WIN_SCORE;
+            if ((board.getWinningCells(opponent, boardIndex) & bit) != 0)
+                score += BLOCK_SCORE;
+            if (board.givesFreeChoice(boardIndex, cell)) {
+                score -= FREE_CHOICE_PENALTY;
+            } else {
+                int giftCells = board.getWinningCells(opponent, cell);
+                // On the same board, the move itself occupies one of the opponent's winning cells.
+                if (cell == boardIndex)
+                    giftCells &= ~bit;
+                if (giftCells != 0)
+                    score -= GIFT_PENALTY;
+            }
+
+            moves[ply][count] = index;
+            moveScores[ply][count] = score;
+            count++;
+        }
+        return count;
+    }
+
+    /**
+     * Swaps the best-scored of the remaining moves of a ply to the given position.
+     * Selecting lazily avoids sorting moves that are never searched after a cutoff.
+     *
+     * @param ply   The distance from the root.
+     * @param from  The position to fill.
+     * @param count The number of moves.
+     */
+    private void selectNext(int ply, int from, int count) {
+        int[] plyMoves = moves[ply];
+        int[] scores = moveScores[ply];
+        int best = from;
+        for (int i = from + 1; i < count; i++) {
+            if (scores[i] > scores[best])
+                best = i;
+        }
+
+        int move = plyMoves[best];
+        plyMoves[best] = plyMoves[from];
+        plyMoves[from] = move;
+        int score = scores[best];
+        scores[best] = scores[from];
+        scores[from] = score;
+    }
+
+    /**
+     * Scores a leaf for the player to move.
+     *
+     * @param board The position.
+     * @return The evaluator's score, negated if the human is to move.
+     */
+    private int evaluate(MCTSBoard board) {
+        int score = evaluator.evaluate(board);
+        return board.getNextPlayer() == Player.AI ? score : -score;
+    }
+
+    /**
+     * Converts a score into its table form, where decided games count from the stored position instead of the root.
+     *
+     * @param value The score.
+     * @param ply   The distance of the position from the root.
+     * @return The table score.
+     */
+    private static int toTable(int value, int ply) {
+        if (value >= MATE - MAX_DEPTH)
+            return value + ply;
+        if (value <= -(MATE - MAX_DEPTH))
+            return value - ply;
+        return value;
+    }
+
+    /**
+     * Converts a table score back into a score relative to the root.
+     *
+     * @param value The table score.
+     * @param ply   The distance of the position from the root.
+     * @return The score.
+     */
+    private static int fromTable(int value, int ply) {
+        if (value >= MATE - MAX_DEPTH)
+            return value - ply;
+        if (value <= -(MATE - MAX_DEPTH))
+            return value + ply;
+        return value;
+    }
+
+}
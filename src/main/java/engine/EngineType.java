@@ -0,0 +1,14 @@
+package engine;
+
+/**
+ * The available decision engines.
+ */
+public enum EngineType {
+
+    /** Monte Carlo Tree Search, see {@link mcts.MCTSAgent}. */
+    MCTS,
+
+    /** Iterative-deepening alpha-beta search, see {@link AlphaBetaEngine}. */
+    ALPHA_BETA
+
+}
@@ -0,0 +1,32 @@
+package engine;
+
+import common.Move;
+
+/**
+ * A decision engine that plays one side of a game. The engine keeps track of the game itself:
+ * it learns its own moves from {@link #getNextMove()} and the opponent's moves from {@link #applyOpponentMove(Move)}.
+ */
+public interface SearchEngine {
+
+    /**
+     * Determines and plays the engine's next move.
+     *
+     * @return The chosen move.
+     */
+    Move getNextMove();
+
+    /**
+     * Informs the engine of a move made by the opponent.
+     *
+     * @param move The opponent's move.
+     */
+    void applyOpponentMove(Move move);
+
+    /**
+     * Stops any background work and releases the engine's threads once the game is over or abandoned.
+     * The engine must not be used afterwards. Does nothing by default.
+     */
+    default void stop() {
+    }
+
+}
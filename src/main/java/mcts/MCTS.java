@@ -1,18 +1,54 @@
 package mcts;
 
+import board.MCTSBoard;
+import board.MoveSet;
+import board.PlayoutPolicy;
+import board.PositionEvaluator;
 import common.Move;
 import common.Player;
+import common.Status;
+import common.XorShiftRandom;
+import mcts.tree.ArenaTree;
 import mcts.tree.Node;
 import mcts.tree.Tree;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.AtomicLong;
+
 /**
  * Implements the Monte Carlo Tree Search (MCTS) algorithm for AI decision-making.
- * The AI level determines the amount of time spent on searching for the best move.
+ * The AI level determines the amount of time spent on searching for the best move,
+ * unless other {@link SearchLimits} are set.
+ * The search runs either on a {@link Tree} of {@link Node} objects or on an {@link ArenaTree}.
  */
 public class MCTS {
 
+    /** Playout length that lets every simulation run until the game is decided. */
+    public static final int FULL_PLAYOUT = Integer.MAX_VALUE;
+
+    /** How many move budgets a background search may use at most while the opponent thinks. */
+    private static final int PONDER_BUDGET_FACTOR = 10;
+
     private final Tree tree;
-    private final int level;
+    private final ArenaTree arenaTree;
+    private final ForkJoinPool pool;
+    private final int threads;
+    private final AtomicLong iterations = new AtomicLong();
+    private SearchLimits limits;
+    private double exploration = UCT.DEFAULT_EXPLORATION;
+    private int raveEquivalence;
+    private PlayoutPolicy playoutPolicy = PlayoutPolicy.UNIFORM;
+    private int playoutDepth = FULL_PLAYOUT;
+    private PositionEvaluator evaluator;
+    private ForkJoinPool leafPool;
+    private int batchSize = 1;
+    private Thread ponderThread;
+    private volatile boolean stopRequested;
+    private int retainedNodes = 1;
 
     /**
      * Initializes MCTS with a new search tree and a specified AI difficulty level.
@@ -21,11 +57,7 @@ public class MCTS {
      * @throws IllegalArgumentException if the level is out of range.
      */
     public MCTS(int aiLevel) {
-        if (aiLevel < 1 || aiLevel > 10)
-            throw new IllegalArgumentException("Level must be between 1 and 10! Actual: " + aiLevel);
-
-        tree = new Tree();
-        level = aiLevel;
+        this(new Tree(), aiLevel);
     }
 
     /**
@@ -36,56 +68,458 @@ public class MCTS {
      * @throws IllegalArgumentException if the level is out of range.
      */
     public MCTS(Tree tree, int aiLevel) {
+        this(tree, null, aiLevel, null, 1);
+    }
+
+    /**
+     * Initializes MCTS on an existing arena tree and a specified AI difficulty level.
+     *
+     * @param arenaTree The arena tree to continue search from.
+     * @param aiLevel   The AI difficulty level (1-10).
+     * @throws IllegalArgumentException if the level is out of range.
+     */
+    public MCTS(ArenaTree arenaTree, int aiLevel) {
+        this(null, arenaTree, aiLevel, null, 1);
+    }
+
+    /**
+     * Initializes tree-parallel MCTS: several threads of the given pool search one shared tree.
+     * Node statistics are updated atomically, each untried move is expanded by exactly one thread,
+     * and selection applies virtual loss so that concurrent threads spread over different paths.
+     *
+     * @param tree    The shared tree to search.
+     * @param aiLevel The AI difficulty level (1-10).
+     * @param pool    The pool running the search threads.
+     * @param threads The number of threads searching the tree concurrently.
+     * @throws IllegalArgumentException if the level is out of range or the number of threads is not positive.
+     */
+    public MCTS(Tree tree, int aiLevel, ForkJoinPool pool, int threads) {
+        this(tree, null, aiLevel, pool, threads);
+    }
+
+    private MCTS(Tree tree, ArenaTree arenaTree, int aiLevel, ForkJoinPool pool, int threads) {
         if (aiLevel < 1 || aiLevel > 10)
             throw new IllegalArgumentException("Level must be between 1 and 10! Actual: " + aiLevel);
+        if (threads < 1)
+            throw new IllegalArgumentException("Number of threads must be positive! Actual: " + threads);
 
         this.tree = tree;
-        level = aiLevel;
+        this.arenaTree = arenaTree;
+        this.pool = pool;
+        this.threads = threads;
+        limits = SearchLimits.forLevel(aiLevel);
+    }
+
+    /**
+     * Replaces the budget of every following search. By default, the budget is the time of the AI level.
+     *
+     * @param limits The new search limits.
+     */
+    public void setSearchLimits(SearchLimits limits) {
+        this.limits = limits;
+    }
+
+    /**
+     * Sets the exploration constant c of the UCT formula. Larger values favor rarely visited moves.
+     *
+     * @param exploration The exploration constant, {@link UCT#DEFAULT_EXPLORATION} by default.
+     * @throws IllegalArgumentException if the constant is negative or not finite.
+     */
+    public void setExplorationConstant(double exploration) {
+        if (!(exploration >= 0) || Double.isInfinite(exploration))
+            throw new IllegalArgumentException("Exploration constant must be a non-negative number! Actual: " + exploration);
+
+        this.exploration = exploration;
+    }
+
+    /**
+     * Enables RAVE (all-moves-as-first) statistics. Every move a player makes later in a simulation
+     * then also counts for the sibling nodes of that move along the selected path, and selection
+     * blends these statistics with the regular ones. This reaches the same strength with fewer playouts.
+     *
+     * @param raveEquivalence The number of visits at which RAVE and regular values weigh about the same,
+     *                        or 0 to disable RAVE.
+     * @throws IllegalArgumentException if the parameter is negative.
+     */
+    public void setRaveEquivalence(int raveEquivalence) {
+        if (raveEquivalence < 0)
+            throw new IllegalArgumentException("RAVE equivalence must not be negative! Actual: " + raveEquivalence);
+
+        this.raveEquivalence = raveEquivalence;
+    }
+
+    /**
+     * Replaces the policy that chooses the moves of simulated games. Informed policies make each playout
+     * slower but its result more meaningful.
+     *
+     * @param playoutPolicy The new policy, {@link PlayoutPolicy#UNIFORM} by default.
+     */
+    public void setPlayoutPolicy(PlayoutPolicy playoutPolicy) {
+        this.playoutPolicy = playoutPolicy;
+    }
+
+    /**
+     * Limits the length of simulated games. A simulation then stops after the given number of moves and
+     * backpropagates the evaluator's score of the position reached, a fraction of a win or loss.
+     * Shorter playouts allow more iterations in the same time, at the cost of the evaluator's bias.
+     *
+     * @param maxMoves  The maximum number of simulated moves, or {@link #FULL_PLAYOUT} to play every game to its end.
+     * @param evaluator The evaluator scoring the positions reached, e.g. a {@link board.HeuristicEvaluator}.
+     * @throws IllegalArgumentException if the number of moves is not positive or a limit has no evaluator.
+     */
+    public void setPlayoutCutoff(int maxMoves, PositionEvaluator evaluator) {
+        if (maxMoves < 1)
+            throw new IllegalArgumentException("Playout depth must be positive! Actual: " + maxMoves);
+        if (maxMoves != FULL_PLAYOUT && evaluator == null)
+            throw new IllegalArgumentException("Limited playouts need an evaluator!");
+
+        this.playoutDepth = maxMoves;
+        this.evaluator = evaluator;
+    }
+
+    /**
+     * Retrieves the budget of each search.
+     *
+     * @return The search limits.
+     */
+    public SearchLimits getSearchLimits() {
+        return limits;
+    }
+
+    /**
+     * Enables leaf-parallel simulation: every selected leaf is simulated by a batch of playouts
+     * that run in parallel on the given pool, and the summed result is backpropagated in a single pass.
+     *
+     * @param pool      The pool running the playouts.
+     * @param batchSize The number of playouts per selected leaf.
+     * @throws IllegalArgumentException if the batch size is not positive.
+     */
+    public void setLeafParallelism(ForkJoinPool pool, int batchSize) {
+        if (batchSize < 1)
+            throw new IllegalArgumentException("Batch size must be positive! Actual: " + batchSize);
+
+        leafPool = pool;
+        this.batchSize = batchSize;
     }
 
     /**
      * Performs MCTS rollouts to determine the best move.
-     * The search runs until the allocated time is exhausted.
+     * The search runs until one of its {@link SearchLimits} is reached or the root is solved.
+     * A move already proven to win is played immediately without searching.
      *
      * @return The best move found during the search.
      */
     public Move rollout() {
+        if (arenaTree != null) {
+            return rolloutArena();
+        }
+
+        stopPondering();
+        iterations.set(0);
+        if (tree.getRoot().getWinningChild() == null) {
+            if (isTreeParallel()) {
+                searchInParallel(limits, limits.deadline());
+            } else {
+                search(limits, limits.deadline());
+            }
+        }
+
+        var winnderNode = tree.getRoot().getChildWithMaxScore();
+        retainedNodes = tree.setRoot(winnderNode);
+
+        return Move.of(winnderNode.getMove());
+    }
+
+    /**
+     * Runs MCTS iterations on the tree until one of the search limits is reached, without choosing a move.
+     * Used directly by searches that combine the statistics of several trees.
+     */
+    public void search() {
+        iterations.set(0);
+        search(limits, limits.deadline());
+    }
+
+    /**
+     * Starts searching the current root in a background thread while the opponent thinks.
+     * The search keeps adding statistics to the tree until it is stopped by {@link #stopPondering()},
+     * {@link #rollout()} or {@link #updateTree(int)}, or until it has used {@value #PONDER_BUDGET_FACTOR}
+     * times the iterations and time of a move. Nothing happens if the game is already decided.
+     *
+     * @throws IllegalStateException if the search runs on an arena tree.
+     */
+    public synchronized void startPondering() {
+        if (arenaTree != null)
+            throw new IllegalStateException("Pondering requires a node tree");
+
+        stopPondering();
+        if (!tree.getRoot().getBoard().inProgress())
+            return;
+
+        var ponderLimits = limits.scaled(PONDER_BUDGET_FACTOR);
+        var deadline = ponderLimits.deadline();
+        iterations.set(0);
+        ponderThread = new Thread(() -> {
+            if (isTreeParallel()) {
+                searchInParallel(ponderLimits, deadline);
+            } else {
+                search(ponderLimits, deadline);
+            }
+        }, "mcts-ponder");
+        ponderThread.setDaemon(true);
+        ponderThread.start();
+    }
+
+    /**
+     * Stops the background search and waits until it has finished its current iteration.
+     * Afterwards the tree is no longer modified, so its root can be advanced safely.
+     */
+    public synchronized void stopPondering() {
+        if (ponderThread == null)
+            return;
+
+        stopRequested = true;
+        boolean interrupted = false;
+        while (ponderThread.isAlive()) {
+            try {
+                ponderThread.join();
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        ponderThread = null;
+        stopRequested = false;
+
+        if (interrupted)
+            Thread.currentThread().interrupt();
+    }
+
+    /**
+     * Checks whether a background search is running.
+     *
+     * @return true while pondering, false otherwise.
+     */
+    public synchronized boolean isPondering() {
+        return ponderThread != null && ponderThread.isAlive();
+    }
+
+    /**
+     * Runs MCTS iterations on the tree until one of the given limits is reached or pondering is stopped.
+     *
+     * @param limits   The budget of the search.
+     * @param deadline The {@link System#nanoTime()} value at which the search should stop.
+     */
+    private void search(SearchLimits limits, long deadline) {
         var root = tree.getRoot();
-        var endTime = getEndTime();
+        var humanMoves = raveEquivalence > 0 ? new MoveSet() : null;
+        var aiMoves = raveEquivalence > 0 ? new MoveSet() : null;
+
+        if (tree.getTranspositionTable() != null) {
+            tree.getTranspositionTable().nextGeneration();
+        }
+
+        for (long iteration = 0; withinLimits(limits, deadline, iteration, tree.size()); iteration++) {
+            if (root.isSolved())
+                break;
+            if (!isTreeParallel())
+                tree.ensureCapacity(1);
 
-        while (System.currentTimeMillis() < endTime) {
             Node promisingNode = select(root);
+            Node nodeToExplore = promisingNode;
 
             if (promisingNode.getBoard().inProgress()) {
-                expand(promisingNode);
+                var child = expand(promisingNode);
+                if (child != null) {
+                    nodeToExplore = child;
+                    if (isTreeParallel())
+                        nodeToExplore.addVirtualLoss();
+                }
             }
 
-            Node nodeToExplore = promisingNode;
+            if (humanMoves != null) {
+                humanMoves.clear();
+                aiMoves.clear();
+            }
+
+            if (nodeToExplore.isSolved()) {
+                backPropagate(nodeToExplore, root, 1, scoreOf(nodeToExplore.getProof().getId()), humanMoves, aiMoves);
+            } else if (isLeafParallel()) {
+                backPropagate(nodeToExplore, root, batchSize, simulateBatch(nodeToExplore), humanMoves, aiMoves);
+            } else {
+                int score = simulatePlayOut(nodeToExplore, humanMoves, aiMoves);
+                backPropagate(nodeToExplore, root, 1, score, humanMoves, aiMoves);
+            }
+        }
+    }
 
-            if (promisingNode.hasChildren()) {
-                nodeToExplore = promisingNode.getRandomChild();
+    /**
+     * Advances the root of the searched tree after a move is made in the game.
+     * A running background search is stopped first, so the statistics it gathered below
+     * the played move are kept in the new root. The rest of the old tree is released.
+     *
+     * @param move The packed move that was played.
+     * @return The number of nodes retained below the new root, including the root.
+     */
+    public int updateTree(int move) {
+        if (arenaTree != null) {
+            retainedNodes = arenaTree.advance(move);
+        } else {
+            stopPondering();
+            retainedNodes = tree.advance(move);
+        }
+        return retainedNodes;
+    }
+
+    /**
+     * Retrieves the number of nodes that were kept when the root last advanced,
+     * either after the search played its own move or after {@link #updateTree(int)}.
+     *
+     * @return The number of nodes retained below the current root, including the root.
+     */
+    public int getRetainedNodes() {
+        return retainedNodes;
+    }
+
+    /**
+     * Runs {@link #search(SearchLimits, long)} on all threads of the pool and waits until every thread is done.
+     * The iteration budget is shared by all threads.
+     *
+     * @param limits   The budget of the search.
+     * @param deadline The {@link System#nanoTime()} value at which the search should stop.
+     */
+    private void searchInParallel(SearchLimits limits, long deadline) {
+        tree.ensureCapacity(threads);
+
+        List<ForkJoinTask<?>> tasks = new ArrayList<>(threads);
+        for (int i = 0; i < threads; i++) {
+            tasks.add(pool.submit(() -> search(limits, deadline)));
+        }
+        for (ForkJoinTask<?> task : tasks) {
+            task.join();
+        }
+    }
+
+    /**
+     * Checks whether several threads search the tree concurrently.
+     *
+     * @return true for tree-parallel search, false otherwise.
+     */
+    private boolean isTreeParallel() {
+        return pool != null;
+    }
+
+    /**
+     * Checks whether the search may run another iteration. The first iteration of a search thread
+     * always runs, so the root gets expanded even under a tight budget. The clock is read only every
+     * {@link SearchLimits#clockCheckInterval()} iterations.
+     *
+     * @param limits    The budget of the search.
+     * @param deadline  The {@link System#nanoTime()} value at which the search should stop.
+     * @param iteration The number of iterations this thread has run so far.
+     * @param treeSize  The current number of tree nodes.
+     * @return true if another iteration may run, false otherwise.
+     */
+    private boolean withinLimits(SearchLimits limits, long deadline, long iteration, long treeSize) {
+        if (stopRequested || iterations.getAndIncrement() >= limits.maxIterations())
+            return false;
+        if (iteration == 0)
+            return true;
+        if (treeSize >= limits.maxNodes())
+            return false;
+
+        return !limits.hasDeadline() || iteration % limits.clockCheckInterval() != 0 || System.nanoTime() - deadline < 0;
+    }
+
+    /**
+     * Checks whether every selected leaf is simulated by a parallel batch of playouts.
+     *
+     * @return true for leaf-parallel simulation, false otherwise.
+     */
+    private boolean isLeafParallel() {
+        return leafPool != null && batchSize > 1;
+    }
+
+    /**
+     * Retrieves the tree this search runs on.
+     *
+     * @return The search tree, or null if the search runs on an arena tree.
+     */
+    public Tree getTree() {
+        return tree;
+    }
+
+    /**
+     * Performs MCTS rollouts on the arena tree.
+     * A single board is walked down the selected path with {@link MCTSBoard#doMove(int)}
+     * and taken back afterwards, so nodes need no board of their own.
+     *
+     * @return The best move found during the search.
+     */
+    private Move rolloutArena() {
+        int root = arenaTree.getRoot();
+        var board = new MCTSBoard(arenaTree.getRootBoard());
+        var random = XorShiftRandom.current();
+        var deadline = limits.deadline();
+        iterations.set(0);
+
+        for (long iteration = 0; withinLimits(limits, deadline, iteration, arenaTree.size()); iteration++) {
+            int node = root;
+            int depth = 0;
+
+            // Selection
+            while (arenaTree.getChildCount(node) > 0) {
+                node = UCT.findBestChild(arenaTree, node, exploration);
+                board.doMove(arenaTree.getMove(node));
+                depth++;
+                if (!board.inProgress())
+                    break;
             }
 
-            var simulationResult = simulatePlayOut(nodeToExplore);
-            backPropagate(nodeToExplore, simulationResult);
+            // Expansion
+            if (board.inProgress()) {
+                arenaTree.expand(node, board);
+            }
+
+            int childCount = arenaTree.getChildCount(node);
+            if (childCount > 0) {
+                node = arenaTree.getFirstChild(node) + random.nextInt(childCount);
+                board.doMove(arenaTree.getMove(node));
+                depth++;
+            }
+
+            // Simulation and backpropagation
+            int score = simulate(board, random, null, null);
+            for (int current = node; current != ArenaTree.NONE; current = arenaTree.getParent(current)) {
+                arenaTree.update(current, score);
+            }
+
+            while (depth-- > 0) {
+                board.undoMove();
+            }
         }
 
-        var winnderNode = root.getChildWithMaxScore();
-        tree.setRoot(winnderNode);
+        int winnerMove = arenaTree.getMove(arenaTree.getChildWithMaxVisits(root));
+        retainedNodes = arenaTree.advance(winnerMove);
 
-        return winnderNode.getBoard().getLastMove();
+        return Move.of(winnerMove);
     }
 
     /**
      * Selects the best node to explore using the Upper Confidence Bound (UCT) formula.
-     * Traverses down the tree until a leaf node is reached.
+     * Traverses down the tree through fully expanded nodes until a node with untried moves,
+     * a solved node or a leaf is reached.
      *
      * @param node The root node of the search.
      * @return The most promising node to expand.
      */
     private Node select(Node node) {
-        while (node.hasChildren()) {
-            node = UCT.findBestLeafNode(node);
+        boolean virtualLoss = isTreeParallel();
+        if (virtualLoss)
+            node.addVirtualLoss();
+
+        while (node.isFullyExpanded() && node.hasChildren() && !node.isSolved()) {
+            node = UCT.findBestLeafNode(node, exploration, raveEquivalence);
+            if (virtualLoss)
+                node.addVirtualLoss();
             if (!node.getBoard().inProgress())
                 break;
         }
@@ -93,70 +527,247 @@ public class MCTS {
     }
 
     /**
-     * Expands the given node by generating all possible child nodes (legal moves).
+     * Expands the given node by one child for a random untried move.
+     * If the tree's node budget has no room left, the node is simulated directly.
+     * Pruned nodes are reused before new ones are allocated, also by tree-parallel threads.
      *
      * @param node The node to expand.
+     * @return The new child, or null if the node was not expanded.
      */
-    private void expand(Node node) {
-        node.expandChildren();
+    private Node expand(Node node) {
+        if (!tree.reserve(1))
+            return null;
+
+        var child = node.expandNext(tree.getTranspositionTable(), tree.getNodePool());
+        if (child == null)
+            tree.addNodes(-1);
+        return child;
     }
 
     /**
-     * Simulates a random game from the given node until a terminal state is reached.
+     * Simulates a game with the playout policy from the given node until a terminal state or the playout depth is reached.
+     * The moves are played on the node's own board and taken back afterwards, so no copy is needed
+     * and no memory is allocated per simulated move. In tree-parallel search other threads may read
+     * the node's board at the same time, so the playout runs on a private copy instead.
      *
-     * @param node The node from which the simulation starts.
-     * @return The result of the simulation (AI win, Human win, or draw).
+     * @param node       The node from which the simulation starts.
+     * @param humanMoves The set receiving the human's simulated moves, or null without RAVE.
+     * @param aiMoves    The set receiving the AI's simulated moves, or null without RAVE.
+     * @return The win score of the simulation.
      */
-    private int simulatePlayOut(Node node) {
-        var tempNode = new Node(node);
-        var board = tempNode.getBoard();
+    private int simulatePlayOut(Node node, MoveSet humanMoves, MoveSet aiMoves) {
+        var board = isTreeParallel() ? new MCTSBoard(node.getBoard()) : node.getBoard();
+        return simulate(board, XorShiftRandom.current(), humanMoves, aiMoves);
+    }
 
-        while (board.inProgress()) {
-            board.randomPlay();
+    /**
+     * Plays a simulated game on the given board, which is restored afterwards.
+     * The game is played to its end or cut off after the configured playout depth.
+     *
+     * @param board      The board to simulate on.
+     * @param random     The generator passed to the playout policy.
+     * @param humanMoves The set receiving the human's simulated moves, or null without RAVE.
+     * @param aiMoves    The set receiving the AI's simulated moves, or null without RAVE.
+     * @return The win score of the simulation.
+     */
+    private int simulate(MCTSBoard board, XorShiftRandom random, MoveSet humanMoves, MoveSet aiMoves) {
+        if (playoutDepth == FULL_PLAYOUT) {
+            return scoreOf(board.playOut(random, playoutPolicy, humanMoves, aiMoves));
         }
+        return board.playOut(random, playoutPolicy, playoutDepth, evaluator, humanMoves, aiMoves);
+    }
 
-        return board.getStatus().getId();
+    /**
+     * Simulates a batch of games from the given node in parallel on the leaf pool.
+     * Every playout runs on a private copy of the node's board.
+     *
+     * @param node The node from which the simulations start.
+     * @return The summed win score of all simulations.
+     */
+    private int simulateBatch(Node node) {
+        return leafPool.invoke(new PlayoutBatch(node.getBoard(), batchSize));
     }
 
     /**
-     * Backpropagates the simulation result up the tree, updating win scores.
+     * Backpropagates the simulation results up the tree, updating visits and win scores.
+     * In tree-parallel search, the virtual losses added during selection are removed
+     * on the way up to the search root.
+     * <p>
+     * With RAVE, the moves of the path are added to the simulated moves on the way up, and at every
+     * node all children whose move was played by the same player later on get the result as AMAF update.
+     * Leaf-parallel batches only contribute the moves of the path.
+     * <p>
+     * Proofs are propagated as in MCTS-Solver: a decided leaf is a proven win or loss, and a node is
+     * solved as soon as one child is a proven win for the player to move, or all of its moves are proven losses.
      *
-     * @param node   The node where the simulation ended.
-     * @param result The result of the simulation (AI win, Human win, or draw).
+     * @param node       The node where the simulation ended.
+     * @param root       The root node of the search.
+     * @param visits     The number of simulations run from the node.
+     * @param score      The summed win score of these simulations.
+     * @param humanMoves The human's simulated moves, or null without RAVE.
+     * @param aiMoves    The AI's simulated moves, or null without RAVE.
      */
-    private void backPropagate(Node node, int result) {
+    private void backPropagate(Node node, Node root, int visits, int score, MoveSet humanMoves, MoveSet aiMoves) {
         var tempNode = node;
+        boolean virtualLoss = isTreeParallel();
+        boolean solving = true;
 
         while (tempNode != null) {
-            tempNode.incrementVisits();
+            if (solving)
+                solving = solve(tempNode);
 
-            if (result == Player.AI.getId()) {
-                tempNode.updateWinScore(100);
-            } else if (result == Player.HUMAN.getId()) {
-                tempNode.updateWinScore(-100);
+            tempNode.addVisits(visits);
+            tempNode.updateWinScore(score);
+
+            if (virtualLoss) {
+                tempNode.removeVirtualLoss();
+                virtualLoss = tempNode != root;
             }
 
-            tempNode = tempNode.getParent();
+            var parent = tempNode.getParent();
+            if (humanMoves != null && parent != null) {
+                movesOf(tempNode.getMove(), humanMoves, aiMoves).add(indexOf(tempNode.getMove()));
+                updateAmaf(parent, visits, score, humanMoves, aiMoves);
+            }
+            tempNode = parent;
         }
     }
 
     /**
-     * Calculates the end time for the search based on the AI difficulty level.
+     * Tries to prove the result of a node from its board or from the proofs of its children.
      *
-     * @return The timestamp (in milliseconds) when the search should stop.
+     * @param node The node to solve.
+     * @return true if the node is solved, false otherwise.
      */
-    private long getEndTime() {
-        return System.currentTimeMillis() + 100L * getTimeIntervalForLevel();
+    private static boolean solve(Node node) {
+        if (node.isSolved())
+            return true;
+
+        var board = node.getBoard();
+        if (!board.inProgress()) {
+            var status = board.getStatus();
+            if (status == Status.AI_WIN || status == Status.HUMAN_WIN) {
+                node.setProof(status);
+                return true;
+            }
+            return false;
+        }
+
+        List<Node> children = node.getChildren();
+        if (children.isEmpty())
+            return false;
+
+        boolean allLost = node.hasAllMoves();
+        for (int i = 0; i < children.size(); i++) {
+            var child = children.get(i);
+            if (child.isProvenWin()) {
+                node.setProof(child.getProof());
+                return true;
+            }
+            allLost &= child.isProvenLoss();
+        }
+
+        if (allLost) {
+            var mover = Move.playerOf(children.get(0).getMove());
+            node.setProof(Node.winOf(mover == Player.AI ? Player.HUMAN : Player.AI));
+        }
+        return allLost;
     }
 
     /**
-     * Determines the time interval per search iteration based on the AI level.
-     * Higher levels allow for more computation time.
+     * Adds a result to the AMAF statistics of every child whose move is contained in the simulated moves.
      *
-     * @return The time interval multiplier.
+     * @param parent     The node whose children are updated.
+     * @param visits     The number of simulations.
+     * @param score      The summed win score of these simulations.
+     * @param humanMoves The human's moves of the path and the simulation.
+     * @param aiMoves    The AI's moves of the path and the simulation.
      */
-    private int getTimeIntervalForLevel() {
-        return 2 * (level - 1) + 1;
+    private static void updateAmaf(Node parent, int visits, int score, MoveSet humanMoves, MoveSet aiMoves) {
+        List<Node> children = parent.getChildren();
+        for (int i = 0; i < children.size(); i++) {
+            var child = children.get(i);
+            int move = child.getMove();
+            if (movesOf(move, humanMoves, aiMoves).contains(indexOf(move)))
+                child.updateAmaf(visits, score);
+        }
+    }
+
+    /**
+     * Returns the set holding the moves of the player making the given move.
+     *
+     * @param move       The packed move.
+     * @param humanMoves The human's moves.
+     * @param aiMoves    The AI's moves.
+     * @return The set of the moving player.
+     */
+    private static MoveSet movesOf(int move, MoveSet humanMoves, MoveSet aiMoves) {
+        return Move.playerOf(move) == Player.AI ? aiMoves : humanMoves;
+    }
+
+    /**
+     * Converts a packed move into its index in a {@link MoveSet}.
+     *
+     * @param move The packed move.
+     * @return The index of the move's cell on the global board.
+     */
+    private static int indexOf(int move) {
+        return MoveSet.indexOf(Move.boardOf(move), Move.cellOf(move));
+    }
+
+    /**
+     * Converts a simulation result into a win score from the AI's point of view.
+     *
+     * @param result The result of the simulation (AI win, Human win, or draw).
+     * @return 100 for an AI win, -100 for a human win and 0 for a draw.
+     */
+    private static int scoreOf(int result) {
+        if (result == Player.AI.getId()) {
+            return 100;
+        } else if (result == Player.HUMAN.getId()) {
+            return -100;
+        }
+        return 0;
+    }
+
+    /**
+     * Runs a number of playouts from one board by splitting them in halves until a single playout is left.
+     */
+    private class PlayoutBatch extends RecursiveTask<Integer> {
+
+        private static final long serialVersionUID = 1L;
+
+        private final MCTSBoard board;
+        private final int count;
+
+        /**
+         * Creates a batch of playouts.
+         *
+         * @param board The board the playouts start from; it is only read.
+         * @param count The number of playouts.
+         */
+        PlayoutBatch(MCTSBoard board, int count) {
+            this.board = board;
+            this.count = count;
+        }
+
+        /**
+         * Runs the playouts of this batch.
+         *
+         * @return The summed win score of the playouts.
+         */
+        @Override
+        protected Integer compute() {
+            if (count == 1) {
+                return simulate(new MCTSBoard(board), XorShiftRandom.current(), null, null);
+            }
+
+            var left = new PlayoutBatch(board, count / 2);
+            var right = new PlayoutBatch(board, count - count / 2);
+            left.fork();
+            return right.compute() + left.join();
+        }
+
     }
 
 }
@@ -1,66 +1,407 @@
 package mcts;
 
 import board.MCTSBoard;
+import board.PlayoutPolicy;
+import board.PositionEvaluator;
 import common.Move;
-import mcts.tree.Node;
+import engine.SearchEngine;
+import mcts.tree.ArenaTree;
+import mcts.tree.TranspositionTable;
 import mcts.tree.Tree;
+import solver.EndgameSolver;
+
+import java.util.concurrent.ForkJoinPool;
 
 /**
  * The MCTSAgent class serves as an interface for using the Monte Carlo Tree Search (MCTS) algorithm.
  * It maintains an internal tree structure and allows updating it based on the game's progress.
  */
-public class MCTSAgent {
+public class MCTSAgent implements SearchEngine {
+
+    /** Default number of positions kept in the transposition table. */
+    public static final int DEFAULT_TABLE_SIZE = 1 << 16;
+
+    /**
+     * Default number of open cells at or below which positions are solved exactly.
+     * The {@link EndgameSolver} solves such positions within a few dozen milliseconds.
+     */
+    public static final int DEFAULT_ENDGAME_THRESHOLD = 20;
+
+    /** The endgame solver may use at most the move time divided by this number. */
+    private static final int ENDGAME_TIME_DIVISOR = 2;
 
-    private final Tree tree;
     private final MCTS mcts;
+    private final RootParallelMCTS rootParallel;
+    private final ForkJoinPool pool;
+    private SearchLimits limits;
+    private final MCTSBoard position = new MCTSBoard();
+    private OpeningBook openingBook;
+    private boolean inBook;
+    private EndgameSolver endgameSolver;
+    private int endgameThreshold = DEFAULT_ENDGAME_THRESHOLD;
+    private boolean pondering;
 
     /**
-     * Constructs an MCTS agent with a specified AI difficulty level.
+     * Constructs an MCTS agent with a specified AI difficulty level
+     * and a transposition table of {@link #DEFAULT_TABLE_SIZE} entries.
      *
      * @param aiLevel The difficulty level (1 to 10) determining the depth of search.
      */
     public MCTSAgent(int aiLevel) {
-        tree = new Tree();
-        mcts = new MCTS(tree, aiLevel);
+        this(aiLevel, DEFAULT_TABLE_SIZE);
+    }
+
+    /**
+     * Constructs an MCTS agent with a specified AI difficulty level and transposition table size.
+     *
+     * @param aiLevel   The difficulty level (1 to 10) determining the depth of search.
+     * @param tableSize The number of positions kept in the transposition table, or 0 to disable it.
+     */
+    public MCTSAgent(int aiLevel, int tableSize) {
+        this(aiLevel, tableSize, 1);
+    }
+
+    /**
+     * Constructs an MCTS agent that searches with the given number of threads.
+     * With more than one thread, the agent runs root-parallel MCTS: one independent tree per thread
+     * on a dedicated {@link ForkJoinPool}, combined by summing the root-child visits.
+     *
+     * @param aiLevel   The difficulty level (1 to 10) determining the depth of search.
+     * @param tableSize The number of positions kept in each transposition table, or 0 to disable it.
+     * @param threads   The number of search threads.
+     */
+    public MCTSAgent(int aiLevel, int tableSize, int threads) {
+        this(aiLevel, tableSize, threads, Parallelism.ROOT);
+    }
+
+    /**
+     * Constructs an MCTS agent that searches with the given number of threads and kind of parallelism.
+     * With a single thread the parallelism is ignored.
+     *
+     * @param aiLevel     The difficulty level (1 to 10) determining the depth of search.
+     * @param tableSize   The number of positions kept in the transposition table, or 0 to disable it.
+     * @param threads     The number of search threads.
+     * @param parallelism How the threads share the work.
+     */
+    public MCTSAgent(int aiLevel, int tableSize, int threads, Parallelism parallelism) {
+        this(aiLevel, tableSize, threads, parallelism, Tree.UNLIMITED);
+    }
+
+    /**
+     * Constructs an MCTS agent whose search trees are limited to the given number of nodes.
+     * When a tree reaches its budget, its least-visited subtrees are pruned and their nodes reused,
+     * which keeps the heap footprint of a game predictable.
+     * With more than one thread, the agent owns a dedicated {@link ForkJoinPool} until {@link #stop()} shuts it down.
+     *
+     * @param aiLevel     The difficulty level (1 to 10) determining the depth of search.
+     * @param tableSize   The number of positions kept in the transposition table, or 0 to disable it.
+     * @param threads     The number of search threads.
+     * @param parallelism How the threads share the work.
+     * @param nodeBudget  The maximum number of nodes of each search tree, or {@link Tree#UNLIMITED}.
+     */
+    public MCTSAgent(int aiLevel, int tableSize, int threads, Parallelism parallelism, int nodeBudget) {
+        limits = SearchLimits.forLevel(aiLevel);
+        pool = threads > 1 ? new ForkJoinPool(threads) : null;
+        if (threads > 1 && parallelism == Parallelism.ROOT) {
+            mcts = null;
+            rootParallel = new RootParallelMCTS(aiLevel, threads, tableSize, nodeBudget, pool);
+        } else if (threads > 1 && parallelism == Parallelism.LEAF) {
+            mcts = new MCTS(createTree(tableSize, nodeBudget), aiLevel);
+            mcts.setLeafParallelism(pool, threads);
+            rootParallel = null;
+        } else if (threads > 1) {
+            mcts = new MCTS(createTree(tableSize, nodeBudget), aiLevel, pool, threads);
+            rootParallel = null;
+        } else {
+            mcts = new MCTS(createTree(tableSize, nodeBudget), aiLevel);
+            rootParallel = null;
+        }
+    }
+
+    /**
+     * Constructs an MCTS agent that searches on a struct-of-arrays {@link ArenaTree}.
+     *
+     * @param aiLevel   The difficulty level (1 to 10) determining the depth of search.
+     * @param arenaTree The arena tree to search on.
+     */
+    public MCTSAgent(int aiLevel, ArenaTree arenaTree) {
+        mcts = new MCTS(arenaTree, aiLevel);
+        rootParallel = null;
+        pool = null;
+        limits = SearchLimits.forLevel(aiLevel);
     }
 
     /**
      * Determines the next move using the MCTS algorithm.
+     * While the game follows the opening book, the book move is played without searching.
+     * In the endgame, a move that is proven to win or draw is played instead of the search result;
+     * the time the solver takes counts against the budget of the move.
      *
      * @return The best move found through MCTS simulations.
      */
+    @Override
     public Move getNextMove() {
-        return mcts.rollout();
+        long start = System.nanoTime();
+        int knownMove = inBook ? openingBook.lookup(position) : Move.NONE;
+        if (knownMove == Move.NONE) {
+            // Once the game has left the book, it cannot return to it.
+            inBook = false;
+            knownMove = solveEndgame();
+        }
+
+        Move move;
+        if (knownMove != Move.NONE) {
+            move = Move.of(knownMove);
+            advanceTree(knownMove);
+        } else {
+            move = search(limits.afterElapsed(System.nanoTime() - start));
+        }
+        position.performMove(move);
+
+        if (pondering) {
+            if (rootParallel != null) {
+                rootParallel.startPondering();
+            } else {
+                mcts.startPondering();
+            }
+        }
+        return move;
+    }
+
+    /**
+     * Replaces the budget of the following searches, e.g. with a fixed number of iterations for benchmarks.
+     * By default, the budget is the time of the AI level.
+     *
+     * @param limits The new search limits.
+     */
+    public void setSearchLimits(SearchLimits limits) {
+        this.limits = limits;
+        applySearchLimits(limits);
+    }
+
+    /**
+     * Passes search limits on to the searches.
+     *
+     * @param limits The search limits.
+     */
+    private void applySearchLimits(SearchLimits limits) {
+        if (rootParallel != null) {
+            rootParallel.setSearchLimits(limits);
+        } else {
+            mcts.setSearchLimits(limits);
+        }
+    }
+
+    /**
+     * Searches for a move within the given limits; afterwards the limits of the agent apply again.
+     *
+     * @param moveLimits The budget of this search.
+     * @return The best move found during the search.
+     */
+    private Move search(SearchLimits moveLimits) {
+        applySearchLimits(moveLimits);
+        try {
+            return rootParallel != null ? rootParallel.rollout() : mcts.rollout();
+        } finally {
+            applySearchLimits(limits);
+        }
+    }
+
+    /**
+     * Sets the exploration constant of the UCT formula, {@link UCT#DEFAULT_EXPLORATION} by default.
+     *
+     * @param exploration The exploration constant.
+     */
+    public void setExplorationConstant(double exploration) {
+        if (rootParallel != null) {
+            rootParallel.setExplorationConstant(exploration);
+        } else {
+            mcts.setExplorationConstant(exploration);
+        }
+    }
+
+    /**
+     * Enables RAVE (all-moves-as-first) statistics, which reach the same strength with fewer playouts.
+     *
+     * @param raveEquivalence The number of visits at which RAVE and regular values weigh about the same,
+     *                        or 0 to disable RAVE.
+     */
+    public void setRaveEquivalence(int raveEquivalence) {
+        if (rootParallel != null) {
+            rootParallel.setRaveEquivalence(raveEquivalence);
+        } else {
+            mcts.setRaveEquivalence(raveEquivalence);
+        }
+    }
+
+    /**
+     * Replaces the policy that chooses the moves of simulated games, e.g. a {@link board.WinBlockPlayoutPolicy}
+     * that takes and blocks immediate wins.
+     *
+     * @param playoutPolicy The new policy, {@link PlayoutPolicy#UNIFORM} by default.
+     */
+    public void setPlayoutPolicy(PlayoutPolicy playoutPolicy) {
+        if (rootParallel != null) {
+            rootParallel.setPlayoutPolicy(playoutPolicy);
+        } else {
+            mcts.setPlayoutPolicy(playoutPolicy);
+        }
+    }
+
+    /**
+     * Limits the length of simulated games. Each simulation stops after the given number of moves and
+     * counts the evaluator's score of the position reached instead of a final result.
+     *
+     * @param maxMoves  The maximum number of simulated moves, or {@link MCTS#FULL_PLAYOUT} to play every game to its end.
+     * @param evaluator The evaluator scoring the positions reached, e.g. a {@link board.HeuristicEvaluator}.
+     * @throws IllegalArgumentException if the number of moves is not positive or a limit has no evaluator.
+     */
+    public void setPlayoutCutoff(int maxMoves, PositionEvaluator evaluator) {
+        if (rootParallel != null) {
+            rootParallel.setPlayoutCutoff(maxMoves, evaluator);
+        } else {
+            mcts.setPlayoutCutoff(maxMoves, evaluator);
+        }
+    }
+
+    /**
+     * Sets the opening book whose moves are played instead of searching, as long as the game stays in the book.
+     *
+     * @param openingBook The book, or null to always search.
+     */
+    public void setOpeningBook(OpeningBook openingBook) {
+        this.openingBook = openingBook;
+        inBook = openingBook != null;
+    }
+
+    /**
+     * Sets the number of open cells at or below which the agent solves positions exactly
+     * instead of searching, {@link #DEFAULT_ENDGAME_THRESHOLD} by default.
+     * The solver may use half of a timed move budget. If it proves a loss or exceeds its node or time limit,
+     * the agent searches with the rest of the budget.
+     *
+     * @param openCells The maximum number of open cells of a solved position, or 0 to always search.
+     * @throws IllegalArgumentException if the number of open cells is negative.
+     */
+    public void setEndgameThreshold(int openCells) {
+        if (openCells < 0)
+            throw new IllegalArgumentException("Endgame threshold must not be negative! Actual: " + openCells);
+
+        this.endgameThreshold = openCells;
+    }
+
+    /**
+     * Enables or disables pondering. With pondering enabled, the agent keeps searching in the background
+     * after each of its moves until the opponent's move arrives via {@link #updateTree(Move)}.
+     * Disabling it stops a running background search.
+     *
+     * @param pondering true to search on the opponent's time, false otherwise.
+     * @throws IllegalStateException if pondering is enabled for an agent searching on an arena tree.
+     */
+    public void setPondering(boolean pondering) {
+        if (pondering && rootParallel == null && mcts.getTree() == null)
+            throw new IllegalStateException("Pondering requires a node tree");
+
+        this.pondering = pondering;
+        if (!pondering)
+            stopPondering();
+    }
+
+    /**
+     * Stops pondering, see {@link #stopPondering()}, and shuts down the agent's search threads.
+     * The agent must not search again afterwards.
+     */
+    @Override
+    public void stop() {
+        stopPondering();
+        if (pool != null)
+            pool.shutdown();
+    }
+
+    /**
+     * Stops a running background search, e.g. when the game is abandoned.
+     */
+    public void stopPondering() {
+        if (rootParallel != null) {
+            rootParallel.stopPondering();
+        } else if (mcts.getTree() != null) {
+            mcts.stopPondering();
+        }
     }
 
     /**
      * Updates the internal MCTS tree after a move is made in the game.
      * If the move exists in the current tree, it sets the corresponding child node as the new root.
      * Otherwise, it creates a new root node based on the move.
+     * The discarded part of the tree is released, so memory stays flat over the course of a game.
      *
      * @param move The move that was played.
+     * @return The number of tree nodes retained after the move, summed over all trees.
      */
-    public void updateTree(Move move) {
-        Node root = tree.getRoot();
-        Node node = null;
+    public int updateTree(Move move) {
+        position.performMove(move);
+        return advanceTree(move.code());
+    }
 
-        // Search for the child node corresponding to the played move
-        for (var child : root.getChildren()) {
-            var lastMove =  child.getBoard().getLastMove();
-            if (lastMove == move) {
-                node = child;
-                break;
-            }
-        }
+    /**
+     * Retrieves the number of tree nodes that were kept when the trees last advanced,
+     * after the agent's own move as well as after the opponent's. The count stays flat
+     * over a game when discarded subtrees are released as they should be.
+     *
+     * @return The number of retained tree nodes, summed over all trees.
+     */
+    public int getRetainedNodes() {
+        return rootParallel != null ? rootParallel.getRetainedNodes() : mcts.getRetainedNodes();
+    }
 
-        if (node != null) {
-            // If the move exists in the current tree, set it as the new root
-            tree.setRoot(node);
-        } else {
-            // Otherwise, create a new node with an updated board state
-            var board = new MCTSBoard(root.getBoard());
-            board.performMove(move);
-            tree.setRoot(new Node(root, board));
+    /**
+     * Solves the current position if few enough cells are open.
+     *
+     * @return A move that is proven to win or draw, or {@link Move#NONE} if there is none or the position is too large.
+     */
+    private int solveEndgame() {
+        if (!position.inProgress() || position.countOpenCells() > endgameThreshold)
+            return Move.NONE;
+
+        if (endgameSolver == null)
+            endgameSolver = new EndgameSolver();
+
+        long timeNanos = limits.hasDeadline() ? Math.max(1, limits.timeNanos() / ENDGAME_TIME_DIVISOR) : SearchLimits.UNLIMITED;
+        var result = endgameSolver.solve(position, timeNanos);
+        return result != null && result.value() != EndgameSolver.LOSS ? result.move() : Move.NONE;
+    }
+
+    /**
+     * Updates the search trees with the opponent's move, see {@link #updateTree(Move)}.
+     *
+     * @param move The opponent's move.
+     */
+    @Override
+    public void applyOpponentMove(Move move) {
+        updateTree(move);
+    }
+
+    /**
+     * Advances the search trees by a move.
+     *
+     * @param move The packed move that was played.
+     * @return The number of tree nodes retained after the move, summed over all trees.
+     */
+    private int advanceTree(int move) {
+        if (rootParallel != null) {
+            return rootParallel.updateTree(move);
         }
+        return mcts.updateTree(move);
+    }
+
+    /**
+     * Creates an empty search tree with an optional transposition table.
+     *
+     * @param tableSize  The number of positions kept in the transposition table, or 0 to disable it.
+     * @param nodeBudget The maximum number of nodes of the tree, or {@link Tree#UNLIMITED}.
+     * @return The new tree.
+     */
+    private static Tree createTree(int tableSize, int nodeBudget) {
+        return new Tree(tableSize > 0 ? new TranspositionTable(tableSize) : null, nodeBudget);
     }
 }
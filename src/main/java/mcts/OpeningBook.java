@@ -0,0 +1,178 @@
+package mcts;
+
+import board.MCTSBoard;
+import board.MoveSet;
+import common.Move;
+import common.Player;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * A read-only table of precomputed AI moves for opening positions, built offline by {@link OpeningBookBuilder}.
+ * <p>
+ * The file consists of a header (magic number, version, entry count) followed by fixed-size entries
+ * of Zobrist hash, packed move and visit count, sorted by hash. It is memory-mapped read-only,
+ * so a lookup is a binary search over the mapped pages without reading or parsing the file,
+ * and all processes on a host that open the same book share its pages in the OS page cache.
+ */
+public final class OpeningBook {
+
+    /** The default location of the book, relative to the working directory. */
+    public static final Path DEFAULT_PATH = Path.of("opening-book.bin");
+
+    private static final int MAGIC = 0x55545442;
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 12;
+    private static final int ENTRY_SIZE = 16;
+
+    private final ByteBuffer entries;
+    private final int size;
+
+    /**
+     * A book position: the move to play there and the number of visits the search gave it.
+     *
+     * @param hash   The Zobrist hash of the position, with the AI to move.
+     * @param move   The packed AI move, see {@link Move#encode}.
+     * @param visits The visits of the move in the search that chose it.
+     */
+    public record Entry(long hash, int move, int visits) {
+    }
+
+    private OpeningBook(ByteBuffer entries, int size) {
+        this.entries = entries;
+        this.size = size;
+    }
+
+    /**
+     * Maps a book file into memory.
+     *
+     * @param path The book file.
+     * @return The book.
+     * @throws IOException if the file cannot be read or is not a book of this version.
+     */
+    public static OpeningBook open(Path path) throws IOException {
+        try (var channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long length = channel.size();
+            if (length < HEADER_SIZE)
+                throw new IOException("Not an opening book: " + path);
+
+            // The mapping stays valid after the channel is closed.
+            var buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, length);
+            int size = buffer.getInt(8);
+            if (buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION || length != HEADER_SIZE + (long) size * ENTRY_SIZE)
+                throw new IOException("Not an opening book of version " + VERSION + ": " + path);
+
+            return new OpeningBook(buffer.slice(HEADER_SIZE, size * ENTRY_SIZE), size);
+        }
+    }
+
+    /**
+     * Writes a book file, replacing an existing one.
+     *
+     * @param path    The book file.
+     * @param entries The book positions, in any order.
+     * @throws IOException if the file cannot be written.
+     * @throws IllegalArgumentException if two entries share a hash.
+     */
+    public static void write(Path path, List<Entry> entries) throws IOException {
+        var sorted = new ArrayList<>(entries);
+        sorted.sort(Comparator.comparingLong(Entry::hash));
+        for (int i = 1; i < sorted.size(); i++) {
+            if (sorted.get(i).hash() == sorted.get(i - 1).hash())
+                throw new IllegalArgumentException("Duplicate book position! Hash: " + sorted.get(i).hash());
+        }
+
+        try (var out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(path)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(sorted.size());
+            for (var entry : sorted) {
+                out.writeLong(entry.hash());
+                out.writeInt(entry.move());
+                out.writeInt(entry.visits());
+            }
+        }
+    }
+
+    /**
+     * Looks up the book move of a position.
+     *
+     * @param hash The Zobrist hash of the position.
+     * @return The packed move, or {@link Move#NONE} if the position is not in the book.
+     */
+    public int lookup(long hash) {
+        int entry = find(hash);
+        return entry < 0 ? Move.NONE : entries.getInt(entry * ENTRY_SIZE + 8);
+    }
+
+    /**
+     * Looks up the book move of a position and checks that it is a legal AI move there,
+     * which guards against hash collisions with positions outside the book.
+     *
+     * @param board The position, with the AI to move.
+     * @return The packed move, or {@link Move#NONE} if the position has no legal book move.
+     */
+    public int lookup(MCTSBoard board) {
+        int move = lookup(board.getHash());
+        if (move == Move.NONE || Move.playerOf(move) != Player.AI)
+            return Move.NONE;
+
+        var legalMoves = new MoveSet();
+        board.getLegalMoves(legalMoves);
+        return legalMoves.contains(MoveSet.indexOf(Move.boardOf(move), Move.cellOf(move))) ? move : Move.NONE;
+    }
+
+    /**
+     * Retrieves the visits the book search gave to the move of a position.
+     *
+     * @param hash The Zobrist hash of the position.
+     * @return The visit count, or 0 if the position is not in the book.
+     */
+    public int getVisits(long hash) {
+        int entry = find(hash);
+        return entry < 0 ? 0 : entries.getInt(entry * ENTRY_SIZE + 12);
+    }
+
+    /**
+     * Retrieves the number of book positions.
+     *
+     * @return The book size.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Searches the sorted entries for a hash.
+     *
+     * @param hash The hash to search.
+     * @return The index of the entry, or -1 if there is none.
+     */
+    private int find(long hash) {
+        int low = 0;
+        int high = size - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            long midHash = entries.getLong(mid * ENTRY_SIZE);
+            if (midHash < hash) {
+                low = mid + 1;
+            } else if (midHash > hash) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -1;
+    }
+
+}
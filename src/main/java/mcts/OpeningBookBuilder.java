@@ -0,0 +1,140 @@
+package mcts;
+
+import board.MCTSBoard;
+import board.MoveSet;
+import common.Move;
+import common.Player;
+import mcts.tree.Node;
+import mcts.tree.Tree;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Builds an {@link OpeningBook} offline by running deep searches on the opening positions.
+ * <p>
+ * Starting from the empty board, with either player moving first, every position within the first
+ * plies in which the AI is to move is searched once; the AI then continues with its book move only,
+ * while every legal reply of the human is followed. Positions reached by different move orders are
+ * searched once. Run it with
+ * {@code mvn compile exec:java -Dexec.mainClass=mcts.OpeningBookBuilder -Dexec.args="<file> <plies> <iterations>"}.
+ */
+public class OpeningBookBuilder {
+
+    /** Default number of plies covered by the book. */
+    public static final int DEFAULT_PLIES = 4;
+
+    /** Default number of search iterations per book position. */
+    public static final long DEFAULT_ITERATIONS = 200_000;
+
+    private final int plies;
+    private final SearchLimits limits;
+    private final List<OpeningBook.Entry> entries = new ArrayList<>();
+    private final Set<Long> visited = new HashSet<>();
+
+    /**
+     * Creates a builder.
+     *
+     * @param plies  The number of plies from the empty board in which the AI's moves are searched.
+     * @param limits The budget of the search of each book position.
+     * @throws IllegalArgumentException if the number of plies is not positive.
+     */
+    public OpeningBookBuilder(int plies, SearchLimits limits) {
+        if (plies < 1)
+            throw new IllegalArgumentException("Number of plies must be positive! Actual: " + plies);
+
+        this.plies = plies;
+        this.limits = limits;
+    }
+
+    /**
+     * Builds a book file.
+     *
+     * @param args The file to write, and optionally the number of plies and the iterations per position.
+     * @throws IOException if the book cannot be written.
+     */
+    public static void main(String[] args) throws IOException {
+        var path = args.length > 0 ? Path.of(args[0]) : OpeningBook.DEFAULT_PATH;
+        int plies = args.length > 1 ? Integer.parseInt(args[1]) : DEFAULT_PLIES;
+        long iterations = args.length > 2 ? Long.parseLong(args[2]) : DEFAULT_ITERATIONS;
+
+        long start = System.nanoTime();
+        var entries = new OpeningBookBuilder(plies, SearchLimits.ofIterations(iterations)).build();
+        OpeningBook.write(path, entries);
+        System.out.printf("Wrote %d positions to %s in %.1f s%n", entries.size(), path, (System.nanoTime() - start) / 1e9);
+    }
+
+    /**
+     * Searches all book positions.
+     *
+     * @return The book entries.
+     */
+    public List<OpeningBook.Entry> build() {
+        entries.clear();
+        visited.clear();
+
+        // The AI moves first.
+        visit(new MCTSBoard(), 0);
+
+        // The human moves first.
+        for (int cell = 0; cell < MoveSet.SIZE; cell++) {
+            var board = new MCTSBoard();
+            board.performMove(Move.encode(cell / 9, cell % 9, Player.HUMAN));
+            visit(board, 1);
+        }
+        return List.copyOf(entries);
+    }
+
+    /**
+     * Adds the book move of a position if the AI is to move, and continues with the following positions.
+     *
+     * @param board The position.
+     * @param ply   The number of moves played since the empty board.
+     */
+    private void visit(MCTSBoard board, int ply) {
+        if (ply >= plies || !board.inProgress())
+            return;
+
+        var lastMove = board.getLastMove();
+        if (lastMove == null || lastMove.player() == Player.HUMAN) {
+            if (!visited.add(board.getHash()))
+                return;
+
+            int move = search(board);
+            var next = new MCTSBoard(board);
+            next.performMove(move);
+            visit(next, ply + 1);
+            return;
+        }
+
+        var moves = new MoveSet();
+        board.getLegalMoves(moves);
+        for (int index = moves.nextIndex(0); index >= 0; index = moves.nextIndex(index + 1)) {
+            var next = new MCTSBoard(board);
+            next.performMove(Move.encode(index / 9, index % 9, Player.HUMAN));
+            visit(next, ply + 1);
+        }
+    }
+
+    /**
+     * Searches a position and records its best move.
+     *
+     * @param board The position, with the AI to move.
+     * @return The packed best move.
+     */
+    private int search(MCTSBoard board) {
+        var tree = new Tree();
+        tree.setRoot(new Node(new MCTSBoard(board)));
+        var mcts = new MCTS(tree, 10);
+        mcts.setSearchLimits(limits);
+
+        int move = mcts.rollout().code();
+        entries.add(new OpeningBook.Entry(board.getHash(), move, tree.getRoot().getVisits()));
+        return move;
+    }
+
+}
@@ -0,0 +1,17 @@
+package mcts;
+
+/**
+ * The ways {@link MCTSAgent} can spread its search over several threads.
+ */
+public enum Parallelism {
+
+    /** Every thread searches its own tree; root-child visits are summed at the end. */
+    ROOT,
+
+    /** All threads search one shared tree, spread apart by virtual loss. */
+    TREE,
+
+    /** One thread searches the tree; each selected leaf is simulated by a batch of parallel playouts. */
+    LEAF
+
+}
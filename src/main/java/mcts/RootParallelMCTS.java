@@ -0,0 +1,241 @@
+package mcts;
+
+import board.PlayoutPolicy;
+import board.PositionEvaluator;
+import common.Move;
+import mcts.tree.TranspositionTable;
+import mcts.tree.Tree;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+/**
+ * Runs root-parallel Monte Carlo Tree Search on a {@link ForkJoinPool}.
+ * Every worker owns an independent tree and searches it for the same time budget.
+ * Afterwards the visit counts of the root children are summed per move across all trees,
+ * and the move with the most visits overall is played. Each tree keeps its own subtree
+ * for the next move, so tree reuse works per worker.
+ */
+public class RootParallelMCTS {
+
+    private final ForkJoinPool pool;
+    private final MCTS[] workers;
+
+    /**
+     * Creates a root-parallel search with one tree per worker.
+     *
+     * @param aiLevel   The AI difficulty level (1-10) determining the time budget.
+     * @param workers   The number of independent trees to search.
+     * @param tableSize The size of each worker's transposition table, or 0 to disable it.
+     * @param pool      The pool running the workers.
+     * @throws IllegalArgumentException if the number of workers is not positive.
+     */
+    public RootParallelMCTS(int aiLevel, int workers, int tableSize, ForkJoinPool pool) {
+        this(aiLevel, workers, tableSize, Tree.UNLIMITED, pool);
+    }
+
+    /**
+     * Creates a root-parallel search with one memory-bounded tree per worker.
+     *
+     * @param aiLevel    The AI difficulty level (1-10) determining the time budget.
+     * @param workers    The number of independent trees to search.
+     * @param tableSize  The size of each worker's transposition table, or 0 to disable it.
+     * @param nodeBudget The maximum number of nodes of each worker's tree, or {@link Tree#UNLIMITED}.
+     * @param pool       The pool running the workers.
+     * @throws IllegalArgumentException if the number of workers or the node budget is not positive.
+     */
+    public RootParallelMCTS(int aiLevel, int workers, int tableSize, int nodeBudget, ForkJoinPool pool) {
+        if (workers < 1)
+            throw new IllegalArgumentException("Number of workers must be positive! Actual: " + workers);
+
+        this.pool = pool;
+        this.workers = new MCTS[workers];
+
+        for (int i = 0; i < workers; i++) {
+            var tree = new Tree(tableSize > 0 ? new TranspositionTable(tableSize) : null, nodeBudget);
+            this.workers[i] = new MCTS(tree, aiLevel);
+        }
+    }
+
+    /**
+     * Searches all trees in parallel and plays the move with the most visits summed over all roots.
+     * A move that any worker has already proven to win is played without searching.
+     *
+     * @return The best move found during the search.
+     */
+    public Move rollout() {
+        stopPondering();
+
+        int bestMove = findProvenWin();
+        if (bestMove == Move.NONE) {
+            List<ForkJoinTask<?>> tasks = new ArrayList<>(workers.length);
+            for (MCTS worker : workers) {
+                tasks.add(pool.submit(worker::search));
+            }
+            for (ForkJoinTask<?> task : tasks) {
+                task.join();
+            }
+            bestMove = getMostVisitedMove();
+        }
+        updateTree(bestMove);
+
+        return Move.of(bestMove);
+    }
+
+    /**
+     * Advances the root of every worker's tree after a move is made in the game.
+     *
+     * @param move The packed move that was played.
+     * @return The number of nodes retained over all trees.
+     */
+    public int updateTree(int move) {
+        int retained = 0;
+        for (MCTS worker : workers) {
+            retained += worker.updateTree(move);
+        }
+        return retained;
+    }
+
+    /**
+     * Retrieves the number of nodes that were kept when the roots last advanced, summed over all trees.
+     *
+     * @return The number of retained nodes over all trees.
+     */
+    public int getRetainedNodes() {
+        int retained = 0;
+        for (MCTS worker : workers) {
+            retained += worker.getRetainedNodes();
+        }
+        return retained;
+    }
+
+    /**
+     * Replaces the budget of every worker's following searches.
+     * Each worker gets the full budget, e.g. the full number of iterations, for its own tree.
+     *
+     * @param limits The new search limits.
+     */
+    public void setSearchLimits(SearchLimits limits) {
+        for (MCTS worker : workers) {
+            worker.setSearchLimits(limits);
+        }
+    }
+
+    /**
+     * Sets the exploration constant of the UCT formula for every worker.
+     *
+     * @param exploration The exploration constant.
+     */
+    public void setExplorationConstant(double exploration) {
+        for (MCTS worker : workers) {
+            worker.setExplorationConstant(exploration);
+        }
+    }
+
+    /**
+     * Enables RAVE statistics for every worker.
+     *
+     * @param raveEquivalence The RAVE equivalence parameter, or 0 to disable RAVE.
+     */
+    public void setRaveEquivalence(int raveEquivalence) {
+        for (MCTS worker : workers) {
+            worker.setRaveEquivalence(raveEquivalence);
+        }
+    }
+
+    /**
+     * Sets the playout policy of every worker.
+     *
+     * @param playoutPolicy The policy choosing the moves of simulated games.
+     */
+    public void setPlayoutPolicy(PlayoutPolicy playoutPolicy) {
+        for (MCTS worker : workers) {
+            worker.setPlayoutPolicy(playoutPolicy);
+        }
+    }
+
+    /**
+     * Limits the length of simulated games for every worker.
+     *
+     * @param maxMoves  The maximum number of simulated moves, or {@link MCTS#FULL_PLAYOUT}.
+     * @param evaluator The evaluator scoring the positions reached.
+     */
+    public void setPlayoutCutoff(int maxMoves, PositionEvaluator evaluator) {
+        for (MCTS worker : workers) {
+            worker.setPlayoutCutoff(maxMoves, evaluator);
+        }
+    }
+
+    /**
+     * Starts a background search on every worker's tree while the opponent thinks.
+     */
+    public void startPondering() {
+        for (MCTS worker : workers) {
+            worker.startPondering();
+        }
+    }
+
+    /**
+     * Stops the background searches of all workers.
+     */
+    public void stopPondering() {
+        for (MCTS worker : workers) {
+            worker.stopPondering();
+        }
+    }
+
+    /**
+     * Looks for a root child that any worker has proven to win.
+     *
+     * @return The packed winning move, or {@link Move#NONE} if no worker has proven a win.
+     */
+    private int findProvenWin() {
+        for (MCTS worker : workers) {
+            var winningChild = worker.getTree().getRoot().getWinningChild();
+            if (winningChild != null)
+                return winningChild.getMove();
+        }
+        return Move.NONE;
+    }
+
+    /**
+     * Retrieves the search of one worker.
+     *
+     * @param index The index of the worker.
+     * @return The worker's search.
+     */
+    MCTS getWorker(int index) {
+        return workers[index];
+    }
+
+    /**
+     * Sums the visits of the root children per move over all trees and returns the best move.
+     * A move that any worker has proven to win is returned right away.
+     *
+     * @return The packed move with the highest total number of visits.
+     */
+    private int getMostVisitedMove() {
+        int winningMove = findProvenWin();
+        if (winningMove != Move.NONE)
+            return winningMove;
+
+        var visitsPerMove = new long[2 * 81];
+        int bestMove = Move.NONE;
+
+        for (MCTS worker : workers) {
+            for (var child : worker.getTree().getRoot().getChildren()) {
+                visitsPerMove[child.getMove()] += child.getVisits();
+            }
+        }
+
+        for (int move = 0; move < visitsPerMove.length; move++) {
+            if (visitsPerMove[move] > 0 && (bestMove == Move.NONE || visitsPerMove[move] > visitsPerMove[bestMove])) {
+                bestMove = move;
+            }
+        }
+        return bestMove;
+    }
+
+}
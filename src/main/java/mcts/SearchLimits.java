@@ -0,0 +1,140 @@
+package mcts;
+
+/**
+ * The budget of one MCTS search: a maximum number of iterations, a maximum number of tree nodes
+ * and a maximum time. The search stops as soon as any of them is reached, but always runs at least
+ * one iteration so that the root gets expanded.
+ * <p>
+ * The time is measured with {@link System#nanoTime()} and checked only every
+ * {@code clockCheckInterval} iterations to keep the clock off the hot path.
+ * Fixed iteration budgets make searches reproducible regardless of the machine's load.
+ *
+ * @param maxIterations      The maximum number of iterations, or {@link #UNLIMITED}.
+ * @param maxNodes           The maximum number of tree nodes, or {@link #UNLIMITED}.
+ * @param timeNanos          The maximum search time in nanoseconds, or {@link #UNLIMITED}.
+ * @param clockCheckInterval The number of iterations between two clock checks.
+ */
+public record SearchLimits(long maxIterations, long maxNodes, long timeNanos, int clockCheckInterval) {
+
+    /** Value of a limit that is never reached. */
+    public static final long UNLIMITED = Long.MAX_VALUE;
+
+    /** Default number of iterations between two clock checks. */
+    public static final int DEFAULT_CLOCK_CHECK_INTERVAL = 32;
+
+    private static final long NANOS_PER_MILLI = 1_000_000L;
+
+    /**
+     * Validates the limits.
+     *
+     * @throws IllegalArgumentException if a limit or the clock check interval is not positive.
+     */
+    public SearchLimits {
+        if (maxIterations < 1)
+            throw new IllegalArgumentException("Maximum iterations must be positive! Actual: " + maxIterations);
+        if (maxNodes < 1)
+            throw new IllegalArgumentException("Maximum nodes must be positive! Actual: " + maxNodes);
+        if (timeNanos < 1)
+            throw new IllegalArgumentException("Time must be positive! Actual: " + timeNanos);
+        if (clockCheckInterval < 1)
+            throw new IllegalArgumentException("Clock check interval must be positive! Actual: " + clockCheckInterval);
+    }
+
+    /**
+     * Creates the time budget of an AI difficulty level: 100 ms for level 1, plus 200 ms per further level.
+     *
+     * @param aiLevel The AI difficulty level (1-10).
+     * @return Limits that only bound the search time.
+     * @throws IllegalArgumentException if the level is out of range.
+     */
+    public static SearchLimits forLevel(int aiLevel) {
+        if (aiLevel < 1 || aiLevel > 10)
+            throw new IllegalArgumentException("Level must be between 1 and 10! Actual: " + aiLevel);
+
+        return ofMillis(100L * (2 * (aiLevel - 1) + 1));
+    }
+
+    /**
+     * Creates limits that only bound the search time.
+     *
+     * @param millis The maximum search time in milliseconds.
+     * @return The new limits.
+     */
+    public static SearchLimits ofMillis(long millis) {
+        return new SearchLimits(UNLIMITED, UNLIMITED, millis * NANOS_PER_MILLI, DEFAULT_CLOCK_CHECK_INTERVAL);
+    }
+
+    /**
+     * Creates limits that only bound the number of iterations, e.g. for reproducible benchmarks.
+     *
+     * @param iterations The number of iterations.
+     * @return The new limits.
+     */
+    public static SearchLimits ofIterations(long iterations) {
+        return new SearchLimits(iterations, UNLIMITED, UNLIMITED, DEFAULT_CLOCK_CHECK_INTERVAL);
+    }
+
+    /**
+     * Returns a copy of these limits with a bounded number of tree nodes.
+     *
+     * @param nodes The maximum number of tree nodes.
+     * @return The new limits.
+     */
+    public SearchLimits withMaxNodes(long nodes) {
+        return new SearchLimits(maxIterations, nodes, timeNanos, clockCheckInterval);
+    }
+
+    /**
+     * Returns these limits with the given time already spent, e.g. by work done before the search.
+     * An unbounded time stays unbounded; a used-up time leaves the minimum of one iteration.
+     *
+     * @param elapsedNanos The time already spent in nanoseconds.
+     * @return The remaining limits.
+     */
+    public SearchLimits afterElapsed(long elapsedNanos) {
+        if (!hasDeadline())
+            return this;
+        return new SearchLimits(maxIterations, maxNodes, Math.max(1, timeNanos - elapsedNanos), clockCheckInterval);
+    }
+
+    /**
+     * Returns these limits with every bound except the node count multiplied by the given factor.
+     * Unlimited bounds stay unlimited.
+     *
+     * @param factor The positive factor.
+     * @return The scaled limits.
+     */
+    public SearchLimits scaled(int factor) {
+        return new SearchLimits(scale(maxIterations, factor), maxNodes, scale(timeNanos, factor), clockCheckInterval);
+    }
+
+    /**
+     * Checks whether the search time is bounded.
+     *
+     * @return true if the search has a deadline, false otherwise.
+     */
+    public boolean hasDeadline() {
+        return timeNanos != UNLIMITED;
+    }
+
+    /**
+     * Calculates the deadline of a search starting now.
+     *
+     * @return The {@link System#nanoTime()} value at which the search should stop.
+     */
+    public long deadline() {
+        return System.nanoTime() + (hasDeadline() ? timeNanos : 0);
+    }
+
+    /**
+     * Multiplies a limit by a factor, saturating at {@link #UNLIMITED}.
+     *
+     * @param limit  The limit to scale.
+     * @param factor The factor.
+     * @return The scaled limit.
+     */
+    private static long scale(long limit, int factor) {
+        return limit > UNLIMITED / factor ? UNLIMITED : limit * factor;
+    }
+
+}
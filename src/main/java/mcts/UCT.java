@@ -1,51 +1,221 @@
 package mcts;
 
+import mcts.tree.ArenaTree;
 import mcts.tree.Node;
 
-import java.util.Collections;
-import java.util.Comparator;
+import java.util.List;
 
 /**
  * Implements the Upper Confidence Bound for Trees (UCT) formula used in Monte Carlo Tree Search (MCTS).
  * The UCT formula helps balance exploration and exploitation when selecting nodes during search.
+ * <p>
+ * Selection runs once per tree level and iteration, so it scans the children in a primitive loop
+ * without allocating, computes the parent's logarithm term once, and looks up {@code sqrt(ln(n))}
+ * and {@code 1 / sqrt(n)} in precomputed tables for small visit counts.
+ * <p>
+ * With RAVE enabled, the average result of a child is blended with its all-moves-as-first average,
+ * which dominates while the child has few visits and fades out as real visits accumulate.
+ * Children proven to lose for the player to move are skipped unless all children are proven losses.
  */
 public class UCT {
 
+    /** The default exploration constant, sqrt(2). */
+    public static final double DEFAULT_EXPLORATION = Math.sqrt(2);
+
     /**
-     * Selects the best child node using the UCT formula.
-     * It compares all child nodes and picks the one with the highest UCT value.
+     * Score counted for every pending virtual loss: each thread still searching below a node
+     * is treated as a lost playout until it backpropagates its real result.
+     */
+    private static final int VIRTUAL_LOSS_SCORE = 100;
+
+    /** Visit counts below this size are looked up in the tables. */
+    private static final int TABLE_SIZE = 1 << 12;
+
+    private static final double[] SQRT_LOG = new double[TABLE_SIZE];
+    private static final double[] INV_SQRT = new double[TABLE_SIZE];
+
+    static {
+        for (int n = 1; n < TABLE_SIZE; n++) {
+            SQRT_LOG[n] = Math.sqrt(Math.log(n));
+            INV_SQRT[n] = 1.0 / Math.sqrt(n);
+        }
+    }
+
+    /**
+     * Selects the best child node using the UCT formula with the default exploration constant.
      *
      * @param node The parent node whose children are evaluated.
      * @return The child node with the highest UCT score.
      */
     public static Node findBestLeafNode(Node node) {
-        int totalVisitsOfParent = node.getVisits();
+        return findBestLeafNode(node, DEFAULT_EXPLORATION);
+    }
+
+    /**
+     * Selects the best child node using the UCT formula.
+     * It compares all child nodes and picks the first one with the highest UCT value.
+     * Pending virtual losses of concurrent searches count as visits with a lost result.
+     *
+     * @param node        The parent node whose children are evaluated.
+     * @param exploration The exploration constant c.
+     * @return The child node with the highest UCT score.
+     */
+    public static Node findBestLeafNode(Node node, double exploration) {
+        return findBestLeafNode(node, exploration, 0);
+    }
+
+    /**
+     * Selects the best child node using the UCT formula, blended with RAVE values.
+     * The weight of the RAVE value is {@code beta = sqrt(k / (3 * n + k))} for a child with n visits,
+     * where k is the equivalence parameter: the number of visits at which both values weigh about the same.
+     *
+     * @param node             The parent node whose children are evaluated.
+     * @param exploration      The exploration constant c.
+     * @param raveEquivalence  The RAVE equivalence parameter k, or 0 to disable RAVE.
+     * @return The child node with the highest blended score.
+     */
+    public static Node findBestLeafNode(Node node, double exploration, int raveEquivalence) {
+        var best = findBestLeafNode(node, exploration, raveEquivalence, true);
+        return best != null ? best : findBestLeafNode(node, exploration, raveEquivalence, false);
+    }
+
+    /**
+     * Scans the children of a node for the highest blended UCT value.
+     *
+     * @param node             The parent node whose children are evaluated.
+     * @param exploration      The exploration constant c.
+     * @param raveEquivalence  The RAVE equivalence parameter k, or 0 to disable RAVE.
+     * @param skipProvenLosses Whether children proven to lose for the player to move are ignored.
+     * @return The child node with the highest score, or null if every child was skipped.
+     */
+    private static Node findBestLeafNode(Node node, double exploration, int raveEquivalence, boolean skipProvenLosses) {
+        double explorationTerm = exploration * sqrtLog(node.getVisits());
+        List<Node> children = node.getChildren();
+        Node best = null;
+        double bestValue = Double.NEGATIVE_INFINITY;
+
+        for (int i = 0; i < children.size(); i++) {
+            var child = children.get(i);
+            if (skipProvenLosses && child.isProvenLoss())
+                continue;
+
+            int virtualLoss = child.getVirtualLoss();
+            int visits = child.getVisits() + virtualLoss;
+            int winScore = child.getWinScore() - VIRTUAL_LOSS_SCORE * virtualLoss;
+            double value = raveEquivalence > 0
+                    ? calcRaveValue(explorationTerm, visits, winScore, child.getAmafVisits(), child.getAmafScore(), raveEquivalence)
+                    : calcUCTValue(explorationTerm, visits, winScore);
+
+            if (best == null || value > bestValue) {
+                bestValue = value;
+                best = child;
+            }
+        }
+        return best;
+    }
 
-        return Collections.max(node.getChildren(), Comparator.comparing(child -> calcUCTValue(
-                totalVisitsOfParent,
-                child.getVisits(),
-                child.getWinScore())
-        ));
+    /**
+     * Selects the best child of an arena node using the UCT formula with the default exploration constant.
+     *
+     * @param tree The arena holding the nodes.
+     * @param node The index of the parent node whose children are evaluated.
+     * @return The index of the child with the highest UCT score.
+     */
+    public static int findBestChild(ArenaTree tree, int node) {
+        return findBestChild(tree, node, DEFAULT_EXPLORATION);
+    }
+
+    /**
+     * Selects the best child of an arena node using the UCT formula.
+     * The children are scanned in a single loop over contiguous indices.
+     *
+     * @param tree        The arena holding the nodes.
+     * @param node        The index of the parent node whose children are evaluated.
+     * @param exploration The exploration constant c.
+     * @return The index of the child with the highest UCT score.
+     */
+    public static int findBestChild(ArenaTree tree, int node, double exploration) {
+        double explorationTerm = exploration * sqrtLog(tree.getVisits(node));
+        int first = tree.getFirstChild(node);
+        int best = first;
+        double bestValue = Double.NEGATIVE_INFINITY;
+
+        for (int child = first; child < first + tree.getChildCount(node); child++) {
+            double value = calcUCTValue(explorationTerm, tree.getVisits(child), tree.getWinScore(child));
+            if (value > bestValue) {
+                bestValue = value;
+                best = child;
+            }
+        }
+        return best;
     }
 
     /**
      * Calculates the Upper Confidence Bound (UCT) value for a node.
      *
      * UCT formula:
-     * UCT = (winScore / nodeVisits) + c * sqrt(ln(totalVisits) / nodeVisits)
-     * where `c` is an exploration constant (typically sqrt(2)).
+     * UCT = (winScore / nodeVisits) + c * sqrt(ln(totalVisits)) / sqrt(nodeVisits)
+     * where the parent's part {@code c * sqrt(ln(totalVisits))} is computed once per selection.
      *
-     * @param totalVisits Total number of visits to the parent node.
-     * @param nodeVisits  Number of visits to the current node.
-     * @param winScore    Win score of the current node.
+     * @param explorationTerm The exploration constant times the square root of the parent's log visits.
+     * @param nodeVisits      Number of visits to the current node.
+     * @param winScore        Win score of the current node.
      * @return The UCT value used to select the best node.
      */
-    private static double calcUCTValue(int totalVisits, int nodeVisits, double winScore) {
+    private static double calcUCTValue(double explorationTerm, int nodeVisits, double winScore) {
         if (nodeVisits == 0)
             return Integer.MAX_VALUE;
 
-        double c = Math.sqrt(2);
-        return (winScore / (double) nodeVisits) + c * Math.sqrt(Math.log(totalVisits) / (double) nodeVisits);
+        return winScore / nodeVisits + explorationTerm * invSqrt(nodeVisits);
+    }
+
+    /**
+     * Calculates the UCT value of a node with its average result blended with the RAVE average.
+     *
+     * RAVE formula:
+     * value = (1 - beta) * (winScore / nodeVisits) + beta * (amafScore / amafVisits) + c * sqrt(ln(totalVisits)) / sqrt(nodeVisits)
+     * with beta = sqrt(k / (3 * nodeVisits + k)).
+     *
+     * @param explorationTerm The exploration constant times the square root of the parent's log visits.
+     * @param nodeVisits      Number of visits to the current node.
+     * @param winScore        Win score of the current node.
+     * @param amafVisits      Number of simulations counted in the AMAF score.
+     * @param amafScore       AMAF score of the current node.
+     * @param raveEquivalence The RAVE equivalence parameter k.
+     * @return The blended value used to select the best node.
+     */
+    private static double calcRaveValue(double explorationTerm, int nodeVisits, double winScore,
+                                        int amafVisits, double amafScore, int raveEquivalence) {
+        if (nodeVisits == 0)
+            return Integer.MAX_VALUE;
+        if (amafVisits == 0)
+            return calcUCTValue(explorationTerm, nodeVisits, winScore);
+
+        double beta = Math.sqrt(raveEquivalence / (3.0 * nodeVisits + raveEquivalence));
+        return (1 - beta) * (winScore / nodeVisits) + beta * (amafScore / amafVisits)
+                + explorationTerm * invSqrt(nodeVisits);
+    }
+
+    /**
+     * Computes {@code sqrt(ln(visits))}, or 0 for no visits.
+     *
+     * @param visits The visit count of the parent.
+     * @return The square root of the natural logarithm.
+     */
+    private static double sqrtLog(int visits) {
+        if (visits < TABLE_SIZE)
+            return visits > 0 ? SQRT_LOG[visits] : 0;
+        return Math.sqrt(Math.log(visits));
+    }
+
+    /**
+     * Computes {@code 1 / sqrt(visits)} for a positive visit count.
+     *
+     * @param visits The visit count of the child.
+     * @return The inverse square root.
+     */
+    private static double invSqrt(int visits) {
+        return visits < TABLE_SIZE ? INV_SQRT[visits] : 1.0 / Math.sqrt(visits);
     }
 
 }
@@ -0,0 +1,298 @@
+package mcts.tree;
+
+import board.MCTSBoard;
+
+import java.util.Arrays;
+
+/**
+ * A Monte Carlo search tree stored as a struct of arrays instead of a graph of {@link Node} objects.
+ * Every node is an index into parallel primitive arrays holding its visits, win score, parent,
+ * first child, child count and packed move. The children of a node occupy a contiguous index range,
+ * so selecting among them is a linear scan over contiguous memory.
+ * <p>
+ * Nodes do not own a board. Only the root board is stored; the search replays the moves along
+ * the selected path on a single {@link MCTSBoard} and takes them back afterwards.
+ * The arrays grow in chunks of {@link #CHUNK_SIZE} nodes or more.
+ */
+public class ArenaTree {
+
+    /** Index used for a missing parent or child. */
+    public static final int NONE = -1;
+
+    /** Minimum number of nodes added when the arrays grow. */
+    public static final int CHUNK_SIZE = 4096;
+
+    private static final int ROOT = 0;
+
+    private final int[] moveBuffer = new int[9];
+    private MCTSBoard rootBoard;
+    private int[] visits;
+    private int[] winScores;
+    private int[] parents;
+    private int[] firstChildren;
+    private int[] childCounts;
+    private int[] moves;
+    private int size;
+
+    /**
+     * Initializes the arena with a single root node for the empty board.
+     */
+    public ArenaTree() {
+        this(new MCTSBoard());
+    }
+
+    /**
+     * Initializes the arena with a single root node for the given board.
+     *
+     * @param rootBoard The board state of the root.
+     */
+    public ArenaTree(MCTSBoard rootBoard) {
+        allocateArrays(CHUNK_SIZE);
+        reset(rootBoard);
+    }
+
+    /**
+     * Returns the index of the root node.
+     *
+     * @return The root index.
+     */
+    public int getRoot() {
+        return ROOT;
+    }
+
+    /**
+     * Returns the board state of the root node.
+     *
+     * @return The root board.
+     */
+    public MCTSBoard getRootBoard() {
+        return rootBoard;
+    }
+
+    /**
+     * Returns the number of nodes in the arena.
+     *
+     * @return The node count.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Expands a node by appending one child per possible next move as a contiguous block.
+     * Like {@link Node#expandChildren()}, new children start with the statistics of their parent.
+     *
+     * @param node  The node to expand.
+     * @param board The board state of the node.
+     */
+    public void expand(int node, MCTSBoard board) {
+        int count = board.getNextMoves(moveBuffer);
+        if (count == 0) {
+            return;
+        }
+
+        int first = allocate(count);
+        for (int i = 0; i < count; i++) {
+            int child = first + i;
+            visits[child] = visits[node];
+            winScores[child] = winScores[node];
+            parents[child] = node;
+            firstChildren[child] = NONE;
+            childCounts[child] = 0;
+            moves[child] = moveBuffer[i];
+        }
+
+        firstChildren[node] = first;
+        childCounts[node] = count;
+    }
+
+    /**
+     * Finds the child of a node with the highest number of visits.
+     *
+     * @param node The parent node.
+     * @return The index of the most visited child, or {@link #NONE} if the node has no children.
+     */
+    public int getChildWithMaxVisits(int node) {
+        int best = NONE;
+        int first = firstChildren[node];
+
+        for (int child = first; child < first + childCounts[node]; child++) {
+            if (best == NONE || visits[child] > visits[best]) {
+                best = child;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Finds the child of a node reached by the given move.
+     *
+     * @param node The parent node.
+     * @param move The packed move.
+     * @return The index of the child, or {@link #NONE} if it does not exist.
+     */
+    public int findChild(int node, int move) {
+        int first = firstChildren[node];
+
+        for (int child = first; child < first + childCounts[node]; child++) {
+            if (moves[child] == move) {
+                return child;
+            }
+        }
+        return NONE;
+    }
+
+    /**
+     * Advances the root by a move that was played in the game.
+     * If the move has been explored, its subtree is compacted to the front of the arena and kept;
+     * all other nodes are dropped. Otherwise the arena restarts from the new position.
+     *
+     * @param move The packed move that was played.
+     * @return The number of nodes retained below the new root, including the root.
+     */
+    public int advance(int move) {
+        int child = findChild(ROOT, move);
+        var board = new MCTSBoard(rootBoard);
+        board.performMove(move);
+
+        if (child == NONE) {
+            reset(board);
+        } else {
+            rootBoard = board;
+            compact(child);
+        }
+        return size;
+    }
+
+    /**
+     * Adds a simulation result to a node.
+     *
+     * @param node  The node to update.
+     * @param score The score to add to the node's win score.
+     */
+    public void update(int node, int score) {
+        visits[node]++;
+        winScores[node] += score;
+    }
+
+    /** Returns the number of times the node has been visited. */
+    public int getVisits(int node) {
+        return visits[node];
+    }
+
+    /** Returns the accumulated win score of the node. */
+    public int getWinScore(int node) {
+        return winScores[node];
+    }
+
+    /** Returns the index of the node's parent, or {@link #NONE} for the root. */
+    public int getParent(int node) {
+        return parents[node];
+    }
+
+    /** Returns the index of the node's first child, or {@link #NONE} if it has not been expanded. */
+    public int getFirstChild(int node) {
+        return firstChildren[node];
+    }
+
+    /** Returns the number of children of the node. */
+    public int getChildCount(int node) {
+        return childCounts[node];
+    }
+
+    /** Returns the packed move that led to the node. */
+    public int getMove(int node) {
+        return moves[node];
+    }
+
+    /**
+     * Drops all nodes and starts over with a single root for the given board.
+     *
+     * @param board The new root board.
+     */
+    private void reset(MCTSBoard board) {
+        rootBoard = board;
+        size = 0;
+        allocate(1);
+        visits[ROOT] = 0;
+        winScores[ROOT] = 0;
+        parents[ROOT] = NONE;
+        firstChildren[ROOT] = NONE;
+        childCounts[ROOT] = 0;
+        moves[ROOT] = board.getLastMoveCode();
+    }
+
+    /**
+     * Reserves a contiguous block of nodes, growing the arrays if necessary.
+     *
+     * @param count The number of nodes to reserve.
+     * @return The index of the first reserved node.
+     */
+    private int allocate(int count) {
+        if (size + count > visits.length) {
+            int capacity = visits.length + Math.max(CHUNK_SIZE, visits.length / 2);
+            visits = Arrays.copyOf(visits, capacity);
+            winScores = Arrays.copyOf(winScores, capacity);
+            parents = Arrays.copyOf(parents, capacity);
+            firstChildren = Arrays.copyOf(firstChildren, capacity);
+            childCounts = Arrays.copyOf(childCounts, capacity);
+            moves = Arrays.copyOf(moves, capacity);
+        }
+
+        int first = size;
+        size += count;
+        return first;
+    }
+
+    /**
+     * Rebuilds the arena so that only the subtree of the given node remains, with that node as root.
+     * Nodes are renumbered breadth first, which keeps every block of siblings contiguous.
+     *
+     * @param newRoot The index of the node that becomes the root.
+     */
+    private void compact(int newRoot) {
+        int[] oldVisits = visits;
+        int[] oldWinScores = winScores;
+        int[] oldFirstChildren = firstChildren;
+        int[] oldChildCounts = childCounts;
+        int[] oldMoves = moves;
+        int[] order = new int[size];
+
+        allocateArrays(visits.length);
+        order[ROOT] = newRoot;
+        parents[ROOT] = NONE;
+        int tail = 1;
+
+        for (int head = 0; head < tail; head++) {
+            int old = order[head];
+            visits[head] = oldVisits[old];
+            winScores[head] = oldWinScores[old];
+            moves[head] = oldMoves[old];
+            childCounts[head] = oldChildCounts[old];
+            firstChildren[head] = oldChildCounts[old] > 0 ? tail : NONE;
+
+            for (int k = 0; k < oldChildCounts[old]; k++) {
+                order[tail] = oldFirstChildren[old] + k;
+                parents[tail] = head;
+                tail++;
+            }
+        }
+
+        size = tail;
+    }
+
+    /**
+     * Replaces all node arrays with empty arrays of the given capacity.
+     *
+     * @param capacity The number of nodes the arrays can hold.
+     */
+    private void allocateArrays(int capacity) {
+        visits = new int[capacity];
+        winScores = new int[capacity];
+        parents = new int[capacity];
+        firstChildren = new int[capacity];
+        childCounts = new int[capacity];
+        moves = new int[capacity];
+    }
+
+}
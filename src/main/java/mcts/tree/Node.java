@@ -2,7 +2,13 @@ package mcts.tree;
 
 import board.MCTSBoard;
 import common.Move;
+import common.Player;
+import common.Status;
+import common.XorShiftRandom;
 
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Comparator;
@@ -12,23 +18,69 @@ import java.util.List;
  * Represents a node in the Monte Carlo Tree Search (MCTS) tree.
  * Each node contains a game board state, tracks visits and win scores,
  * and maintains parent-child relationships for tree expansion.
+ * <p>
+ * Children are created lazily: on its first expansion a node records its legal moves as a compact
+ * set of untried moves, and every later expansion turns one of them into a child node with its own board.
+ * <p>
+ * The all-moves-as-first (AMAF) statistics belong to the move from the parent to this node,
+ * so they are kept on the node itself and never shared through the transposition table.
  */
 public class Node {
 
-    private final List<Node> children;
-    private final MCTSBoard board;
+    /** The maximum number of children of a node: all cells of one local board. */
+    public static final int MAX_CHILDREN = 9;
+
+    private static final ThreadLocal<int[]> MOVE_BUFFER = ThreadLocal.withInitial(() -> new int[MAX_CHILDREN]);
+    private static final VarHandle AMAF_SCORE;
+    private static final VarHandle AMAF_VISITS;
+
+    static {
+        try {
+            var lookup = MethodHandles.lookup();
+            AMAF_SCORE = lookup.findVarHandle(Node.class, "amafScore", int.class);
+            AMAF_VISITS = lookup.findVarHandle(Node.class, "amafVisits", int.class);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    private volatile List<Node> children;
+    private volatile boolean expanded;
+    private volatile boolean fullyExpanded;
+    private volatile Status proof;
+    private boolean complete;
+    private long untriedLow;
+    private int untriedHigh;
+    private Player untriedPlayer;
+    private MCTSBoard board;
+    private int move;
+    private boolean released;
     private Node parent;
-    private int winScore;
-    private int visits;
+    private NodeStatistics statistics;
+    private volatile int amafScore;
+    private volatile int amafVisits;
 
     /**
      * Creates a root node with an empty game board.
      */
     public Node() {
-        children = new ArrayList<>();
+        children = List.of();
         board = new MCTSBoard();
-        winScore = 0;
-        visits = 0;
+        move = Move.NONE;
+        statistics = new NodeStatistics(0, 0);
+    }
+
+    /**
+     * Creates a root node for a given board state, with fresh statistics and no parent.
+     * Used when the search continues from a position that is not part of the tree.
+     *
+     * @param board The board state of the new root.
+     */
+    public Node(MCTSBoard board) {
+        children = List.of();
+        this.board = board;
+        move = board.getLastMoveCode();
+        statistics = new NodeStatistics(0, 0);
     }
 
     /**
@@ -38,11 +90,11 @@ public class Node {
      * @param other The node to copy.
      */
     public Node(Node other) {
-        children = new ArrayList<>();
+        children = List.of();
         board = new MCTSBoard(other.getBoard());
+        move = other.getMove();
         parent = other;
-        winScore = other.getWinScore();
-        visits = other.getVisits();
+        statistics = new NodeStatistics(other.getWinScore(), other.getVisits());
     }
 
     /**
@@ -53,11 +105,24 @@ public class Node {
      * @param otherBoard The board state for this new node.
      */
     public Node(Node otherNode, MCTSBoard otherBoard) {
-        children = new ArrayList<>();
+        children = List.of();
         board = otherBoard;
+        move = otherBoard.getLastMoveCode();
         parent = otherNode;
-        winScore = otherNode.getWinScore();
-        visits = otherNode.getVisits();
+        statistics = new NodeStatistics(otherNode.getWinScore(), otherNode.getVisits());
+    }
+
+    /**
+     * Creates a new node whose statistics are shared with all other nodes of the same position.
+     * If the position is not yet in the table, fresh statistics are created and stored.
+     *
+     * @param otherNode  The parent node.
+     * @param otherBoard The board state for this new node.
+     * @param table      The transposition table holding the shared statistics.
+     */
+    public Node(Node otherNode, MCTSBoard otherBoard, TranspositionTable table) {
+        this(otherNode, otherBoard);
+        shareStatistics(table);
     }
 
     /**
@@ -65,25 +130,330 @@ public class Node {
      * Each child represents a new possible game state.
      */
     public void expandChildren() {
-        List<Move> nextMoves = board.getNextMoves();
+        expandChildren(null);
+    }
 
-        for (var move : nextMoves) {
+    /**
+     * Expands the node by generating child nodes for all remaining untried moves.
+     * Children reached by transposition share their statistics through the given table.
+     *
+     * @param table The transposition table, or null to give every child its own statistics.
+     * @return The number of children created, 0 if the node was already fully expanded.
+     */
+    public int expandChildren(TranspositionTable table) {
+        int count = 0;
+        while (expandNext(table, null) != null) {
+            count++;
+        }
+        return count;
+    }
+
+    /**
+     * Materializes one child for a random untried move; only this child gets a board of its own.
+     * On the first call, the legal moves of the node are recorded as untried moves.
+     * Several threads may expand the same node concurrently; each of them gets a different child.
+     * Released nodes from the given pool are reused before new ones are allocated.
+     *
+     * @param table The transposition table, or null to give the child its own statistics.
+     * @param pool  The pool of released nodes, or null to allocate the child.
+     * @return The new child, or null if no untried move is left.
+     */
+    public synchronized Node expandNext(TranspositionTable table, NodePool pool) {
+        if (!expanded) {
+            initUntriedMoves();
+        }
+
+        int untried = Long.bitCount(untriedLow) + Integer.bitCount(untriedHigh);
+        if (untried == 0) {
+            return null;
+        }
+
+        int index = takeUntriedMove(XorShiftRandom.current().nextInt(untried));
+        int childMove = Move.encode(index / 9, index % 9, untriedPlayer);
+
+        var child = pool != null ? pool.poll() : null;
+        if (child != null) {
+            child.reinitialize(this, childMove, table);
+        } else {
             var newBoard = new MCTSBoard(board);
-            newBoard.performMove(move);
-            children.add(new Node(this, newBoard));
+            newBoard.performMove(childMove);
+            child = table == null ? new Node(this, newBoard) : new Node(this, newBoard, table);
+        }
+
+        var currentChildren = children;
+        List<Node> newChildren = new ArrayList<>(currentChildren.size() + 1);
+        newChildren.addAll(currentChildren);
+        newChildren.add(child);
+        children = newChildren;
+
+        if (untried == 1) {
+            fullyExpanded = true;
+        }
+        return child;
+    }
+
+    /**
+     * Checks whether every legal move of this node has a child.
+     * Selection descends only through fully expanded nodes.
+     *
+     * @return true if no untried move is left, false otherwise.
+     */
+    public boolean isFullyExpanded() {
+        return fullyExpanded;
+    }
+
+    /**
+     * Checks whether every legal move of this node has a child. Unlike {@link #isFullyExpanded()},
+     * this is false for positions with a free board choice, whose children cover only some of the moves.
+     *
+     * @return true if the children cover all legal moves, false otherwise.
+     */
+    public boolean hasAllMoves() {
+        return fullyExpanded && complete;
+    }
+
+    /**
+     * Retrieves the proven game result of this position.
+     *
+     * @return {@link Status#AI_WIN} or {@link Status#HUMAN_WIN} if the result is proven, null otherwise.
+     */
+    public Status getProof() {
+        return proof;
+    }
+
+    /**
+     * Marks this position as a proven win for one of the players.
+     *
+     * @param proof {@link Status#AI_WIN} or {@link Status#HUMAN_WIN}.
+     */
+    public void setProof(Status proof) {
+        this.proof = proof;
+    }
+
+    /**
+     * Checks whether the result of this position is proven.
+     *
+     * @return true if the position is solved, false otherwise.
+     */
+    public boolean isSolved() {
+        return proof != null;
+    }
+
+    /**
+     * Checks whether the move leading to this node is proven to win for the player who made it.
+     *
+     * @return true for a proven win of the moving player, false otherwise.
+     */
+    public boolean isProvenWin() {
+        return proof != null && move != Move.NONE && proof == winOf(Move.playerOf(move));
+    }
+
+    /**
+     * Checks whether the move leading to this node is proven to lose for the player who made it.
+     *
+     * @return true for a proven loss of the moving player, false otherwise.
+     */
+    public boolean isProvenLoss() {
+        return proof != null && move != Move.NONE && proof != winOf(Move.playerOf(move));
+    }
+
+    /**
+     * Finds a child whose move is a proven win for the player to move.
+     *
+     * @return The winning child, or null if no child is proven to win.
+     */
+    public Node getWinningChild() {
+        var currentChildren = children;
+        for (int i = 0; i < currentChildren.size(); i++) {
+            if (currentChildren.get(i).isProvenWin())
+                return currentChildren.get(i);
+        }
+        return null;
+    }
+
+    /**
+     * Returns the status meaning a win for the given player.
+     *
+     * @param player The player.
+     * @return {@link Status#AI_WIN} or {@link Status#HUMAN_WIN}.
+     */
+    public static Status winOf(Player player) {
+        return player == Player.AI ? Status.AI_WIN : Status.HUMAN_WIN;
+    }
+
+    /**
+     * Records the legal moves of this node as untried moves.
+     * The moves are kept as an 81-bit set of {@code boardIndex * 9 + cell} indices; all moves of a node
+     * belong to the same player, who is stored once.
+     */
+    private void initUntriedMoves() {
+        int[] nextMoves = MOVE_BUFFER.get();
+        int count = board.getNextMoves(nextMoves);
+
+        untriedLow = 0;
+        untriedHigh = 0;
+        untriedPlayer = count > 0 ? Move.playerOf(nextMoves[0]) : null;
+        for (int i = 0; i < count; i++) {
+            int index = Move.boardOf(nextMoves[i]) * 9 + Move.cellOf(nextMoves[i]);
+            if (index < 64) {
+                untriedLow |= 1L << index;
+            } else {
+                untriedHigh |= 1 << (index - 64);
+            }
+        }
+
+        complete = board.nextMovesComplete();
+        fullyExpanded = count == 0;
+        expanded = true;
+    }
+
+    /**
+     * Removes the n-th untried move from the set.
+     *
+     * @param n The rank of the move among the untried moves, starting at 0.
+     * @return The index of the removed move.
+     */
+    private int takeUntriedMove(int n) {
+        int lowCount = Long.bitCount(untriedLow);
+        if (n < lowCount) {
+            long bits = untriedLow;
+            for (int i = 0; i < n; i++) {
+                bits &= bits - 1;
+            }
+            int index = Long.numberOfTrailingZeros(bits);
+            untriedLow &= ~(1L << index);
+            return index;
+        }
+
+        int bits = untriedHigh;
+        for (int i = lowCount; i < n; i++) {
+            bits &= bits - 1;
+        }
+        int index = Integer.numberOfTrailingZeros(bits);
+        untriedHigh &= ~(1 << index);
+        return index + 64;
+    }
+
+    /**
+     * Turns this node back into an unexpanded leaf and releases all nodes below it into the pool.
+     * The statistics of this node are kept, so it can be expanded again later.
+     * Must only be called while no other thread walks the tree.
+     *
+     * @param pool The pool receiving the released nodes.
+     * @return The number of released nodes.
+     */
+    public int collapse(NodePool pool) {
+        int count = 0;
+        var pending = new ArrayDeque<>(children);
+        children = List.of();
+        expanded = false;
+        fullyExpanded = false;
+
+        while (!pending.isEmpty()) {
+            var node = pending.pop();
+            pending.addAll(node.children);
+
+            node.children = List.of();
+            node.expanded = false;
+            node.fullyExpanded = false;
+            node.parent = null;
+            node.released = true;
+            pool.release(node);
+            count++;
+        }
+        return count;
+    }
+
+    /**
+     * Releases this node together with its whole subtree into the pool.
+     * Must only be called while no other thread walks the tree.
+     *
+     * @param pool The pool receiving the released nodes.
+     * @return The number of released nodes, including this node.
+     */
+    public int release(NodePool pool) {
+        int count = collapse(pool);
+        parent = null;
+        released = true;
+        pool.release(this);
+        return count + 1;
+    }
+
+    /**
+     * Checks whether this node was pruned from the tree and waits in a {@link NodePool}.
+     *
+     * @return true if the node is released, false if it is part of a tree.
+     */
+    public boolean isReleased() {
+        return released;
+    }
+
+    /**
+     * Checks whether this node has been expanded.
+     *
+     * @return true if the legal moves were recorded, false otherwise.
+     */
+    public boolean isExpanded() {
+        return expanded;
+    }
+
+    /**
+     * Reuses a released node as the child of the given parent reached by the given move.
+     * The board is overwritten in place and the statistics are seeded from the parent.
+     *
+     * @param parent The new parent node.
+     * @param move   The packed move leading from the parent to this node.
+     * @param table  The transposition table, or null to give the node its own statistics.
+     */
+    private void reinitialize(Node parent, int move, TranspositionTable table) {
+        board.copyFrom(parent.board);
+        board.performMove(move);
+        this.move = move;
+        this.parent = parent;
+        released = false;
+        proof = null;
+        amafScore = 0;
+        amafVisits = 0;
+        statistics = new NodeStatistics(parent.getWinScore(), parent.getVisits());
+        if (table != null)
+            shareStatistics(table);
+    }
+
+    /**
+     * Replaces the statistics of this node with those shared by all nodes of the same position.
+     * If the position is not yet in the table, the current statistics are stored.
+     *
+     * @param table The transposition table holding the shared statistics.
+     */
+    private void shareStatistics(TranspositionTable table) {
+        var shared = table.get(board.getHash());
+        if (shared != null) {
+            statistics = shared;
+        } else {
+            table.put(board.getHash(), statistics);
         }
     }
 
     /**
      * Finds the child node with the highest number of visits.
-     * This helps in selecting the most promising move.
+     * This helps in selecting the most promising move. A child proven to win is preferred over all others,
+     * and children proven to lose are only chosen if every child is proven to lose.
      *
      * @return The child node with the maximum visits.
      */
     public Node getChildWithMaxScore() {
-        return Collections.max(children, Comparator.comparing(
-                Node::getVisits
-        ));
+        var winningChild = getWinningChild();
+        if (winningChild != null)
+            return winningChild;
+
+        var currentChildren = children;
+        Node best = null;
+        for (int i = 0; i < currentChildren.size(); i++) {
+            var child = currentChildren.get(i);
+            if (!child.isProvenLoss() && (best == null || child.getVisits() > best.getVisits()))
+                best = child;
+        }
+        return best != null ? best : Collections.max(currentChildren, Comparator.comparing(Node::getVisits));
     }
 
     /**
@@ -93,9 +463,8 @@ public class Node {
      * @return A randomly selected child node.
      */
     public Node getRandomChild() {
-        int maxPossibleMoves = children.size();
-        int selectRandom = (int) (Math.random() * maxPossibleMoves);
-        return children.get(selectRandom);
+        var currentChildren = children;
+        return currentChildren.get(XorShiftRandom.current().nextInt(currentChildren.size()));
     }
 
     /**
@@ -125,6 +494,15 @@ public class Node {
         return board;
     }
 
+    /**
+     * Retrieves the packed move that led to this node.
+     *
+     * @return The packed move, or {@link Move#NONE} for a root without a move.
+     */
+    public int getMove() {
+        return move;
+    }
+
     /**
      * Retrieves the parent node.
      *
@@ -149,7 +527,7 @@ public class Node {
      * @return The current win score.
      */
     public int getWinScore() {
-        return winScore;
+        return statistics.getWinScore();
     }
 
     /**
@@ -159,7 +537,7 @@ public class Node {
      * @param score The score to add.
      */
     public void updateWinScore(int score) {
-        winScore += score;
+        statistics.updateWinScore(score);
     }
 
     /**
@@ -168,7 +546,7 @@ public class Node {
      * @return The visit count.
      */
     public int getVisits() {
-        return visits;
+        return statistics.getVisits();
     }
 
     /**
@@ -176,6 +554,68 @@ public class Node {
      * Used during the MCTS simulation process.
      */
     public void incrementVisits() {
-        visits++;
+        statistics.incrementVisits();
+    }
+
+    /**
+     * Increases the visit count of this node by several visits at once.
+     * Used when a batch of simulations is backpropagated in a single pass.
+     *
+     * @param count The number of visits to add.
+     */
+    public void addVisits(int count) {
+        statistics.addVisits(count);
+    }
+
+    /**
+     * Retrieves the all-moves-as-first (RAVE) score of the move leading to this node.
+     *
+     * @return The AMAF score.
+     */
+    public int getAmafScore() {
+        return amafScore;
+    }
+
+    /**
+     * Retrieves the number of simulations counted in the AMAF score.
+     *
+     * @return The AMAF visit count.
+     */
+    public int getAmafVisits() {
+        return amafVisits;
+    }
+
+    /**
+     * Adds simulation results in which the move leading to this node was played later by the same player.
+     *
+     * @param visits The number of simulations.
+     * @param score  The summed score of these simulations.
+     */
+    public void updateAmaf(int visits, int score) {
+        AMAF_VISITS.getAndAdd(this, visits);
+        AMAF_SCORE.getAndAdd(this, score);
+    }
+
+    /**
+     * Retrieves the number of threads currently searching below this node.
+     *
+     * @return The pending virtual losses.
+     */
+    public int getVirtualLoss() {
+        return statistics.getVirtualLoss();
+    }
+
+    /**
+     * Adds a virtual loss while a thread searches below this node.
+     */
+    public void addVirtualLoss() {
+        statistics.addVirtualLoss();
+    }
+
+    /**
+     * Removes a virtual loss once a thread has backpropagated through this node.
+     */
+    public void removeVirtualLoss() {
+        statistics.removeVirtualLoss();
     }
 }
@@ -0,0 +1,45 @@
+package mcts.tree;
+
+import java.util.ArrayDeque;
+
+/**
+ * Keeps the nodes of pruned subtrees so that later expansions can reuse them,
+ * together with their boards, instead of allocating new ones.
+ * Nodes are released only while a single thread modifies the tree, but tree-parallel search threads
+ * take nodes out of the pool concurrently, so all methods are synchronized.
+ * <p>
+ * Every expansion takes a pooled node before it allocates a new one. The nodes of the tree and of the pool
+ * together therefore never exceed the tree's node budget.
+ */
+public class NodePool {
+
+    private final ArrayDeque<Node> free = new ArrayDeque<>();
+
+    /**
+     * Takes a released node out of the pool.
+     *
+     * @return A released node, or null if the pool is empty.
+     */
+    public synchronized Node poll() {
+        return free.poll();
+    }
+
+    /**
+     * Returns a released node to the pool.
+     *
+     * @param node The node that is no longer part of the tree.
+     */
+    public synchronized void release(Node node) {
+        free.push(node);
+    }
+
+    /**
+     * Retrieves the number of nodes waiting to be reused.
+     *
+     * @return The pool size.
+     */
+    public synchronized int size() {
+        return free.size();
+    }
+
+}
@@ -0,0 +1,113 @@
+package mcts.tree;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+
+/**
+ * Holds the search statistics of a position: how often it has been visited and its accumulated win score.
+ * Nodes that reach the same position through different move orders can share one instance
+ * via the {@link TranspositionTable}.
+ * <p>
+ * All updates are atomic, so several threads can search one shared tree without locks.
+ * The virtual loss counts the threads currently searching below this position; selection treats
+ * each of them as a pending lost playout so that concurrent threads spread over different paths.
+ */
+public class NodeStatistics {
+
+    private static final VarHandle WIN_SCORE;
+    private static final VarHandle VISITS;
+    private static final VarHandle VIRTUAL_LOSS;
+
+    static {
+        try {
+            var lookup = MethodHandles.lookup();
+            WIN_SCORE = lookup.findVarHandle(NodeStatistics.class, "winScore", int.class);
+            VISITS = lookup.findVarHandle(NodeStatistics.class, "visits", int.class);
+            VIRTUAL_LOSS = lookup.findVarHandle(NodeStatistics.class, "virtualLoss", int.class);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    private volatile int winScore;
+    private volatile int visits;
+    private volatile int virtualLoss;
+
+    /**
+     * Creates statistics with the given initial values.
+     *
+     * @param winScore The initial win score.
+     * @param visits   The initial visit count.
+     */
+    public NodeStatistics(int winScore, int visits) {
+        this.winScore = winScore;
+        this.visits = visits;
+    }
+
+    /**
+     * Retrieves the accumulated win score.
+     *
+     * @return The win score.
+     */
+    public int getWinScore() {
+        return winScore;
+    }
+
+    /**
+     * Adds the given score to the win score.
+     *
+     * @param score The score to add.
+     */
+    public void updateWinScore(int score) {
+        WIN_SCORE.getAndAdd(this, score);
+    }
+
+    /**
+     * Retrieves the visit count.
+     *
+     * @return The number of visits.
+     */
+    public int getVisits() {
+        return visits;
+    }
+
+    /**
+     * Increments the visit count by one.
+     */
+    public void incrementVisits() {
+        VISITS.getAndAdd(this, 1);
+    }
+
+    /**
+     * Increases the visit count by the given number of visits.
+     *
+     * @param count The number of visits to add.
+     */
+    public void addVisits(int count) {
+        VISITS.getAndAdd(this, count);
+    }
+
+    /**
+     * Retrieves the number of pending virtual losses.
+     *
+     * @return The number of threads currently searching below this position.
+     */
+    public int getVirtualLoss() {
+        return virtualLoss;
+    }
+
+    /**
+     * Adds one virtual loss when a thread descends through this position.
+     */
+    public void addVirtualLoss() {
+        VIRTUAL_LOSS.getAndAdd(this, 1);
+    }
+
+    /**
+     * Removes one virtual loss when a thread backpropagates through this position.
+     */
+    public void removeVirtualLoss() {
+        VIRTUAL_LOSS.getAndAdd(this, -1);
+    }
+
+}
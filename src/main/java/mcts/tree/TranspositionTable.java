@@ -0,0 +1,137 @@
+package mcts.tree;
+
+/**
+ * A bounded transposition table mapping position hashes to shared {@link NodeStatistics}.
+ * When the same position is reached through different move orders, its nodes share one statistics
+ * object, so the search tree effectively becomes a directed acyclic graph.
+ * <p>
+ * The table has a fixed number of slots grouped into buckets of four. When a bucket is full,
+ * an entry from an older search generation is replaced first, otherwise the least visited entry.
+ * Evicted statistics stay attached to the nodes that already use them; they are just no longer shared.
+ * Access is synchronized, since lookups only happen on expansion and are rare compared to playouts.
+ */
+public class TranspositionTable {
+
+    private static final int BUCKET_SIZE = 4;
+
+    private final long[] keys;
+    private final NodeStatistics[] entries;
+    private final int[] generations;
+    private final int bucketMask;
+    private int generation;
+    private int size;
+
+    /**
+     * Creates a table with at least the given number of slots, rounded up to a power of two.
+     *
+     * @param capacity The minimum number of entries the table can hold.
+     * @throws IllegalArgumentException if the capacity is not positive.
+     */
+    public TranspositionTable(int capacity) {
+        if (capacity <= 0)
+            throw new IllegalArgumentException("Capacity must be positive! Actual: " + capacity);
+
+        int slots = Math.max(BUCKET_SIZE, Integer.highestOneBit(capacity - 1) << 1);
+        keys = new long[slots];
+        entries = new NodeStatistics[slots];
+        generations = new int[slots];
+        bucketMask = slots / BUCKET_SIZE - 1;
+    }
+
+    /**
+     * Looks up the statistics stored for a position.
+     *
+     * @param hash The Zobrist hash of the position.
+     * @return The shared statistics, or null if the position is not stored.
+     */
+    public synchronized NodeStatistics get(long hash) {
+        int bucket = bucketOf(hash);
+
+        for (int slot = bucket; slot < bucket + BUCKET_SIZE; slot++) {
+            if (entries[slot] != null && keys[slot] == hash) {
+                generations[slot] = generation;
+                return entries[slot];
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Stores statistics for a position, replacing an existing entry of the bucket if necessary.
+     *
+     * @param hash       The Zobrist hash of the position.
+     * @param statistics The statistics to share.
+     */
+    public synchronized void put(long hash, NodeStatistics statistics) {
+        int bucket = bucketOf(hash);
+        int victim = bucket;
+
+        for (int slot = bucket; slot < bucket + BUCKET_SIZE; slot++) {
+            if (entries[slot] == null || keys[slot] == hash) {
+                victim = slot;
+                break;
+            }
+            if (isBetterVictim(slot, victim)) {
+                victim = slot;
+            }
+        }
+
+        if (entries[victim] == null) {
+            size++;
+        }
+        keys[victim] = hash;
+        entries[victim] = statistics;
+        generations[victim] = generation;
+    }
+
+    /**
+     * Starts a new search generation. Entries not touched since then are replaced first.
+     */
+    public synchronized void nextGeneration() {
+        generation++;
+    }
+
+    /**
+     * Returns the number of occupied slots.
+     *
+     * @return The number of stored positions.
+     */
+    public synchronized int size() {
+        return size;
+    }
+
+    /**
+     * Returns the maximum number of positions the table can hold.
+     *
+     * @return The number of slots.
+     */
+    public int capacity() {
+        return entries.length;
+    }
+
+    /**
+     * Computes the first slot of the bucket for a hash.
+     *
+     * @param hash The Zobrist hash of the position.
+     * @return The index of the first slot of the bucket.
+     */
+    private int bucketOf(long hash) {
+        return (int) ((hash ^ (hash >>> 32)) & bucketMask) * BUCKET_SIZE;
+    }
+
+    /**
+     * Decides whether a slot should rather be replaced than the current victim.
+     * Older generations are replaced before newer ones; within a generation the least visited entry goes.
+     *
+     * @param slot   The candidate slot.
+     * @param victim The currently chosen slot.
+     * @return true if the candidate is the better victim, false otherwise.
+     */
+    private boolean isBetterVictim(int slot, int victim) {
+        if (generations[slot] != generations[victim]) {
+            return generations[slot] < generations[victim];
+        }
+        return entries[slot].getVisits() < entries[victim].getVisits();
+    }
+
+}
@@ -1,19 +1,61 @@
 package mcts.tree;
 
+import board.MCTSBoard;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.concurrent.atomic.AtomicInteger;
+
 /**
  * Represents the Monte Carlo Tree Search (MCTS) tree structure.
  * The tree consists of nodes where each node represents a possible game state.
  */
 public class Tree {
 
+    /** Node budget of a tree that may grow without bound. */
+    public static final int UNLIMITED = Integer.MAX_VALUE;
+
     private Node root;
+    private final TranspositionTable transpositionTable;
+    private final AtomicInteger size = new AtomicInteger(1);
+    private final int nodeBudget;
+    private final NodePool nodePool = new NodePool();
 
     /**
      * Initializes the tree with a root node.
      * The root node represents the starting game state for MCTS.
      */
     public Tree() {
+        this(null);
+    }
+
+    /**
+     * Initializes the tree with a root node and a transposition table.
+     * Nodes of the same position then share their statistics, turning the tree into a DAG.
+     *
+     * @param transpositionTable The table for shared statistics, or null to disable sharing.
+     */
+    public Tree(TranspositionTable transpositionTable) {
+        this(transpositionTable, UNLIMITED);
+    }
+
+    /**
+     * Initializes the tree with a root node, a transposition table and a hard node budget.
+     * When the budget is reached, {@link #ensureCapacity(int)} prunes the least-visited subtrees
+     * and keeps their nodes for reuse, so the heap footprint of the tree stays bounded.
+     *
+     * @param transpositionTable The table for shared statistics, or null to disable sharing.
+     * @param nodeBudget         The maximum number of nodes, or {@link #UNLIMITED}.
+     * @throws IllegalArgumentException if the budget is not positive.
+     */
+    public Tree(TranspositionTable transpositionTable, int nodeBudget) {
+        if (nodeBudget < 1)
+            throw new IllegalArgumentException("Node budget must be positive! Actual: " + nodeBudget);
+
         root = new Node();
+        this.transpositionTable = transpositionTable;
+        this.nodeBudget = nodeBudget;
     }
 
     /**
@@ -25,13 +67,189 @@ public class Tree {
         return root;
     }
 
+    /**
+     * Retrieves the transposition table used for expansions.
+     *
+     * @return The transposition table, or null if statistics are not shared.
+     */
+    public TranspositionTable getTranspositionTable() {
+        return transpositionTable;
+    }
+
+    /**
+     * Retrieves the number of nodes reachable from the root.
+     *
+     * @return The tree size.
+     */
+    public int size() {
+        return size.get();
+    }
+
+    /**
+     * Retrieves the maximum number of nodes of this tree.
+     *
+     * @return The node budget, or {@link #UNLIMITED}.
+     */
+    public int getNodeBudget() {
+        return nodeBudget;
+    }
+
+    /**
+     * Retrieves the pool of pruned nodes that expansions reuse.
+     *
+     * @return The node pool.
+     */
+    public NodePool getNodePool() {
+        return nodePool;
+    }
+
+    /**
+     * Checks whether the given number of nodes can be added without exceeding the node budget.
+     *
+     * @param count The number of nodes to add.
+     * @return true if the nodes fit, false otherwise.
+     */
+    public boolean hasCapacity(int count) {
+        return size() <= nodeBudget - count;
+    }
+
+    /**
+     * Makes room for the given number of nodes if the budget would be exceeded otherwise.
+     * The least-visited nodes with children below the root are collapsed into leaves until the tree
+     * is down to three quarters of its budget; the released nodes go to the {@link NodePool}.
+     * Must only be called while no other thread walks the tree.
+     *
+     * @param count The number of nodes that should fit afterwards.
+     */
+    public void ensureCapacity(int count) {
+        if (hasCapacity(count))
+            return;
+
+        int target = Math.min(nodeBudget - count, nodeBudget / 4 * 3);
+        var candidates = new ArrayList<Node>();
+        var pending = new ArrayDeque<Node>();
+        pending.push(root);
+
+        while (!pending.isEmpty()) {
+            var node = pending.pop();
+            for (var child : node.getChildren()) {
+                if (child.hasChildren()) {
+                    candidates.add(child);
+                    pending.push(child);
+                }
+            }
+        }
+
+        candidates.sort(Comparator.comparingInt(Node::getVisits));
+        for (var node : candidates) {
+            if (size() <= target)
+                break;
+            if (!node.isReleased())
+                size.addAndGet(-node.collapse(nodePool));
+        }
+    }
+
+    /**
+     * Reserves room for the given number of nodes within the node budget.
+     * Safe to call from several threads; unused room is given back with {@link #addNodes(int)}.
+     *
+     * @param count The number of nodes to reserve.
+     * @return true if the nodes were reserved, false if they do not fit into the budget.
+     */
+    public boolean reserve(int count) {
+        while (true) {
+            int current = size.get();
+            if (current > nodeBudget - count)
+                return false;
+            if (size.compareAndSet(current, current + count))
+                return true;
+        }
+    }
+
+    /**
+     * Records nodes that were added to or removed from the tree by an expansion.
+     *
+     * @param count The number of new nodes, negative for removed nodes.
+     */
+    public void addNodes(int count) {
+        size.addAndGet(count);
+    }
+
     /**
      * Sets a new root node.
-     * This is used to update the tree when a move is made.
+     * This is used to update the tree when a move is made. The new root is detached from its parent,
+     * so the discarded part of the tree becomes unreachable. In a tree with a node budget, the siblings
+     * of the new root are released into the {@link NodePool} for reuse.
      *
      * @param root The new root node to be set.
+     * @return The number of nodes retained below the new root, including the root.
      */
-    public void setRoot(Node root) {
+    public int setRoot(Node root) {
+        var oldRoot = this.root;
+
+        if (nodeBudget != UNLIMITED && root.getParent() == oldRoot) {
+            for (var sibling : oldRoot.getChildren()) {
+                if (sibling != root && !sibling.isReleased())
+                    sibling.release(nodePool);
+            }
+        }
+
+        root.setParent(null);
         this.root = root;
+
+        int retained = countNodes(root);
+        size.set(retained);
+        return retained;
+    }
+
+    /**
+     * Advances the root by a move that was played in the game.
+     * If the move exists in the current tree, the corresponding child becomes the new root.
+     * Otherwise, a new root node without statistics is created based on the move.
+     *
+     * @param move The packed move that was played.
+     * @return The number of nodes retained below the new root, including the root.
+     */
+    public int advance(int move) {
+        Node node = null;
+
+        // Search for the child node corresponding to the played move
+        for (var child : root.getChildren()) {
+            if (child.getMove() == move) {
+                node = child;
+                break;
+            }
+        }
+
+        if (node != null) {
+            // If the move exists in the current tree, set it as the new root
+            return setRoot(node);
+        } else {
+            // Otherwise, create a new node with an updated board state
+            var board = new MCTSBoard(root.getBoard());
+            board.performMove(move);
+            return setRoot(new Node(board));
+        }
+    }
+
+    /**
+     * Counts the nodes of the subtree below the given node, including the node itself.
+     *
+     * @param node The root of the subtree.
+     * @return The number of nodes.
+     */
+    private static int countNodes(Node node) {
+        int count = 0;
+        var pending = new ArrayDeque<Node>();
+        pending.push(node);
+
+        while (!pending.isEmpty()) {
+            var current = pending.pop();
+            count++;
+            for (var child : current.getChildren()) {
+                pending.push(child);
+            }
+        }
+        return count;
     }
 }
@@ -0,0 +1,231 @@
+package solver;
+
+import board.MCTSBoard;
+import board.MoveSet;
+import common.Move;
+import common.Player;
+import common.Status;
+import mcts.SearchLimits;
+
+/**
+ * Solves endgame positions exactly with negamax and alpha-beta pruning.
+ * <p>
+ * Values are game-theoretic results from the point of view of the player to move:
+ * {@link #WIN}, {@link #DRAW} or {@link #LOSS}. With only three values, most windows close after a few
+ * moves, so positions with a few dozen open cells are solved in milliseconds. Moves are searched in the
+ * order: best move of the transposition table, moves that win a local board, all other moves.
+ * <p>
+ * The transposition table keeps one entry per slot and always replaces; entries hold exact values or
+ * bounds, which remain valid across searches, so the table is kept from one move to the next.
+ * Each search is bounded by a node limit and optionally by a time limit, and gives up once either is exceeded.
+ * A solver is not thread-safe.
+ */
+public class EndgameSolver {
+
+    /** Value of a position the player to move wins. */
+    public static final int WIN = 1;
+
+    /** Value of a drawn position. */
+    public static final int DRAW = 0;
+
+    /** Value of a position the player to move loses. */
+    public static final int LOSS = -1;
+
+    /** Default number of transposition table entries. */
+    public static final int DEFAULT_TABLE_SIZE = 1 << 18;
+
+    /** Default number of positions a search may visit. */
+    public static final long DEFAULT_NODE_LIMIT = 2_000_000;
+
+    private static final int EXACT = 1;
+    private static final int LOWER_BOUND = 2;
+    private static final int UPPER_BOUND = 3;
+
+    private static final int MAX_PLY = MoveSet.SIZE + 1;
+    private static final int CLOCK_CHECK_INTERVAL = 1024;
+
+    private final long[] keys;
+    private final int[] entries;
+    private final int mask;
+    private final long nodeLimit;
+    private final int[][] moves = new int[MAX_PLY][MoveSet.SIZE];
+    private final MoveSet legalMoves = new MoveSet();
+
+    private long nodes;
+    private long deadline;
+    private boolean timed;
+    private boolean aborted;
+    private int rootMove;
+
+    /**
+     * The outcome of a solved position.
+     *
+     * @param move  The packed best move.
+     * @param value The value of the position for the player to move: {@link #WIN}, {@link #DRAW} or {@link #LOSS}.
+     * @param nodes The number of positions visited.
+     */
+    public record Result(int move, int value, long nodes) {
+    }
+
+    /**
+     * Creates a solver with a table of {@link #DEFAULT_TABLE_SIZE} entries and a limit of
+     * {@link #DEFAULT_NODE_LIMIT} positions per search.
+     */
+    public EndgameSolver() {
+        this(DEFAULT_TABLE_SIZE, DEFAULT_NODE_LIMIT);
+    }
+
+    /**
+     * Creates a solver.
+     *
+     * @param tableSize The number of transposition table entries, must be a power of two.
+     * @param nodeLimit The maximum number of positions a search may visit.
+     * @throws IllegalArgumentException if the table size is not a power of two or the node limit is not positive.
+     */
+    public EndgameSolver(int tableSize, long nodeLimit) {
+        if (tableSize < 1 || Integer.bitCount(tableSize) != 1)
+            throw new IllegalArgumentException("Table size must be a power of two! Actual: " + tableSize);
+        if (nodeLimit < 1)
+            throw new IllegalArgumentException("Node limit must be positive! Actual: " + nodeLimit);
+
+        keys = new long[tableSize];
+        entries = new int[tableSize];
+        mask = tableSize - 1;
+        this.nodeLimit = nodeLimit;
+    }
+
+    /**
+     * Solves a position without a time limit.
+     *
+     * @param position The position to solve; it is not modified.
+     * @return The best move and the value of the position, or null if the node limit was exceeded.
+     * @throws IllegalArgumentException if the game is already decided.
+     */
+    public Result solve(MCTSBoard position) {
+        return solve(position, SearchLimits.UNLIMITED);
+    }
+
+    /**
+     * Solves a position within a time limit.
+     *
+     * @param position  The position to solve; it is not modified.
+     * @param timeNanos The maximum search time in nanoseconds, or {@link SearchLimits#UNLIMITED}.
+     * @return The best move and the value of the position, or null if the node or time limit was exceeded.
+     * @throws IllegalArgumentException if the game is already decided or the time is not positive.
+     */
+    public Result solve(MCTSBoard position, long timeNanos) {
+        if (!position.inProgress())
+            throw new IllegalArgumentException("Game is already decided! Status: " + position.getStatus());
+        if (timeNanos < 1)
+            throw new IllegalArgumentException("Time must be positive! Actual: " + timeNanos);
+
+        timed = timeNanos != SearchLimits.UNLIMITED;
+        deadline = System.nanoTime() + (timed ? timeNanos : 0);
+        nodes = 0;
+        aborted = false;
+        rootMove = Move.NONE;
+
+        int value = negamax(new MCTSBoard(position), LOSS, WIN, 0);
+        return aborted ? null : new Result(rootMove, value, nodes);
+    }
+
+    /**
+     * Searches a position with alpha-beta pruning.
+     *
+     * @param board The position, restored before returning.
+     * @param alpha The value the player to move is already guaranteed.
+     * @param beta  The value the opponent is already guaranteed, negated.
+     * @param ply   The distance from the root.
+     * @return The value of the position for the player to move, or a bound outside the window.
+     */
+    private int negamax(MCTSBoard board, int alpha, int beta, int ply) {
+        if (++nodes > nodeLimit || timed && nodes % CLOCK_CHECK_INTERVAL == 0 && System.nanoTime() - deadline >= 0) {
+            aborted = true;
+            return DRAW;
+        }
+
+        // The previous move decided the game, so the player to move cannot have won.
+        if (!board.inProgress())
+            return board.getStatus() == Status.DRAW ? DRAW : LOSS;
+
+        long hash = board.getHash();
+        int slot = (int) hash & mask;
+        int tableMove = Move.NONE;
+        if (keys[slot] == hash && entries[slot] != 0) {
+            int entry = entries[slot];
+            int value = (entry >>> 16 & 3) - 1;
+            int flag = entry >>> 18;
+            // The root is always searched, so that its best move is known.
+            boolean cutoff = flag == EXACT || (flag == LOWER_BOUND && value >= beta) || (flag == UPPER_BOUND && value <= alpha);
+            if (cutoff && ply > 0)
+                return value;
+            tableMove = (entry & 0xFFFF) - 1;
+        }
+
+        int originalAlpha = alpha;
+        int count = generateMoves(board, moves[ply], tableMove);
+        int best = LOSS - 1;
+        int bestMove = Move.NONE;
+
+        for (int i = 0; i < count; i++) {
+            int move = moves[ply][i];
+            board.doMove(move);
+            int value = -negamax(board, -beta, -alpha, ply + 1);
+            board.undoMove();
+
+            if (aborted)
+                return DRAW;
+            if (value > best) {
+                best = value;
+                bestMove = move;
+                if (value > alpha)
+                    alpha = value;
+                if (alpha >= beta)
+                    break;
+            }
+        }
+
+        if (ply == 0)
+            rootMove = bestMove;
+
+        int flag = best <= originalAlpha ? UPPER_BOUND : best >= beta ? LOWER_BOUND : EXACT;
+        keys[slot] = hash;
+        entries[slot] = flag << 18 | (best + 1) << 16 | (bestMove + 1);
+        return best;
+    }
+
+    /**
+     * Writes the legal moves of a position into a buffer, best candidates first.
+     *
+     * @param board      The position.
+     * @param buffer     The buffer receiving the packed moves.
+     * @param tableMove  The best move stored in the transposition table, or {@link Move#NONE}.
+     * @return The number of moves.
+     */
+    private int generateMoves(MCTSBoard board, int[] buffer, int tableMove) {
+        Player player = board.getNextPlayer();
+        board.getLegalMoves(legalMoves);
+
+        int count = 0;
+        if (tableMove != Move.NONE)
+            buffer[count++] = tableMove;
+
+        int quietStart = count;
+        for (int index = legalMoves.nextIndex(0); index >= 0; index = legalMoves.nextIndex(index + 1)) {
+            int boardIndex = index / 9;
+            int cell = index % 9;
+            int move = Move.encode(boardIndex, cell, player);
+            if (move == tableMove)
+                continue;
+
+            buffer[count++] = move;
+            if ((board.getWinningCells(player, boardIndex) & 1 << cell) != 0) {
+                // Move the winning move in front of the moves without a local win.
+                buffer[count - 1] = buffer[quietStart];
+                buffer[quietStart++] = move;
+            }
+        }
+        return count;
+    }
+
+}
@@ -4,6 +4,7 @@ import common.Move;
 import common.Player;
 import common.Position;
 import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.RepeatedTest;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.Arguments;
 import org.junit.jupiter.params.provider.MethodSource;
@@ -12,6 +13,7 @@ import java.util.Map;
 import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 public class BaseBoardTest {
 
@@ -103,4 +105,39 @@ public class BaseBoardTest {
         assertEquals(second.player().getId(), secondPosition, "Second move should be correctly placed.");
     }
 
+    @RepeatedTest(50)
+    void testLegalMovesMatchBoardState() {
+        var mctsBoard = (MCTSBoard) board;
+        var legalMoves = new MoveSet();
+
+        mctsBoard.performMove(new Move(4, Position.MIDDLE_CENTER, Player.AI));
+
+        while (mctsBoard.inProgress()) {
+            mctsBoard.getLegalMoves(legalMoves);
+
+            var decidedBoards = mctsBoard.getDecidedBoards();
+            int forcedBoard = mctsBoard.getLastMove().position().getIndex();
+            boolean free = decidedBoards[forcedBoard] != -1;
+            int expectedSize = 0;
+
+            for (int boardIndex = 0; boardIndex < 9; boardIndex++) {
+                var localBoard = mctsBoard.getBoardAt(boardIndex);
+                for (int cell = 0; cell < 9; cell++) {
+                    boolean expected = (free ? decidedBoards[boardIndex] == -1 : boardIndex == forcedBoard)
+                            && localBoard[cell] == 0;
+                    if (expected)
+                        expectedSize++;
+
+                    assertEquals(expected, legalMoves.contains(MoveSet.indexOf(boardIndex, cell)));
+                }
+            }
+
+            assertEquals(expectedSize, legalMoves.size());
+            mctsBoard.randomPlay();
+        }
+
+        mctsBoard.getLegalMoves(legalMoves);
+        assertTrue(legalMoves.isEmpty());
+    }
+
 }
@@ -0,0 +1,50 @@
+package board;
+
+import common.WinningLine;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class BitBoardsTest {
+
+    private boolean containsLine(int mask) {
+        for (var line : WinningLine.values()) {
+            int[] indices = line.getIndices();
+            if ((mask >> indices[0] & 1) == 1 && (mask >> indices[1] & 1) == 1 && (mask >> indices[2] & 1) == 1)
+                return true;
+        }
+        return false;
+    }
+
+    @Test
+    void testWinTableMatchesWinningLines() {
+        for (int mask = 0; mask <= BitBoards.FULL; mask++) {
+            assertEquals(containsLine(mask), BitBoards.isWin(mask), "Mismatch for mask " + mask);
+        }
+    }
+
+    @Test
+    void testCellsOfListsSetBits() {
+        for (int mask = 0; mask <= BitBoards.FULL; mask++) {
+            int[] cells = BitBoards.cellsOf(mask);
+            int rebuilt = 0;
+            for (int cell : cells)
+                rebuilt |= 1 << cell;
+
+            assertEquals(Integer.bitCount(mask), cells.length);
+            assertEquals(mask, rebuilt);
+        }
+    }
+
+    @Test
+    void testWinningCellsCompleteALine() {
+        for (int mask = 0; mask <= BitBoards.FULL; mask++) {
+            for (int cell = 0; cell < 9; cell++) {
+                int bit = 1 << cell;
+                boolean expected = (mask & bit) == 0 && containsLine(mask | bit);
+                assertEquals(expected, (BitBoards.winningCells(mask) & bit) != 0, "Mismatch for mask " + mask + ", cell " + cell);
+            }
+        }
+    }
+
+}
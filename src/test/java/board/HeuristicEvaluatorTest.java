@@ -0,0 +1,77 @@
+package board;
+
+import common.Move;
+import common.Player;
+import common.Status;
+import common.XorShiftRandom;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.RepeatedTest;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class HeuristicEvaluatorTest {
+
+    private final HeuristicEvaluator evaluator = new HeuristicEvaluator();
+    private MCTSBoard board;
+
+    @BeforeEach
+    void setUp() {
+        board = new MCTSBoard();
+    }
+
+    /**
+     * Plays alternating moves, starting with the AI. Each move is given as board index followed by cell.
+     */
+    private void play(int... boardsAndCells) {
+        var player = Player.AI;
+        for (int i = 0; i < boardsAndCells.length; i += 2) {
+            board.doMove(Move.encode(boardsAndCells[i], boardsAndCells[i + 1], player));
+            player = player == Player.AI ? Player.HUMAN : Player.AI;
+        }
+    }
+
+    @Test
+    void testEmptyBoardIsBalanced() {
+        assertEquals(1, Integer.signum(evaluator.evaluate(board, BitBoards.FULL, 1)));
+        assertEquals(-1, Integer.signum(evaluator.evaluate(board, BitBoards.FULL, 0)));
+        assertEquals(evaluator.evaluate(board, BitBoards.FULL, 1), -evaluator.evaluate(board, BitBoards.FULL, 0));
+    }
+
+    @Test
+    void testWonCenterBoardFavorsItsOwner() {
+        // AI wins the center board while the human spreads over the edges; the AI is sent to board 3.
+        play(4, 0, 1, 4, 4, 1, 3, 4, 4, 2, 5, 4);
+
+        assertTrue(evaluator.evaluate(board, 1 << 4, 1) > 0);
+    }
+
+    @Test
+    void testGlobalThreatOutweighsSingleBoard() {
+        // The human wins boards 0 and 1 and threatens board 2; the AI only wins the center.
+        play(4, 0, 0, 0, 4, 1, 0, 1, 4, 2, 0, 2, 8, 0, 1, 0, 8, 1, 1, 1, 7, 0, 1, 2);
+
+        assertTrue(evaluator.evaluate(board, 1 << 2, 1) < 0);
+    }
+
+    @Test
+    void testDecidedGamesScoreWinScore() {
+        play(0, 0, 8, 0, 0, 1, 8, 1, 0, 2, 8, 5, 1, 0, 8, 6, 1, 1, 7, 0, 1, 2, 7, 1, 2, 0, 7, 5, 2, 1, 7, 6, 2, 2);
+
+        assertEquals(Status.AI_WIN, board.getStatus());
+        assertEquals(PositionEvaluator.WIN_SCORE, evaluator.evaluate(board, 0, 0));
+    }
+
+    @RepeatedTest(20)
+    void testUndecidedPositionsScoreBelowWinScore() {
+        PositionEvaluator checked = (b, playableBoards, playerIndex) -> {
+            int score = evaluator.evaluate(b, playableBoards, playerIndex);
+            if (b.inProgress())
+                assertTrue(Math.abs(score) < PositionEvaluator.WIN_SCORE, "Score " + score);
+            return score;
+        };
+
+        board.playOut(XorShiftRandom.current(), PlayoutPolicy.UNIFORM, 30, checked, null, null);
+    }
+
+}
@@ -4,13 +4,17 @@ import common.Move;
 import common.Player;
 import common.Position;
 import common.Status;
+import common.XorShiftRandom;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.RepeatedTest;
+import org.junit.jupiter.api.Test;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.Arguments;
 import org.junit.jupiter.params.provider.MethodSource;
 import utilities.TestUtilities;
 
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
@@ -279,4 +283,181 @@ public class MCTSBoardTest {
 
     }
 
+    @RepeatedTest(50)
+    void testDoMoveAndUndoMoveRestoreState() {
+        board.performMove(new Move(4, Position.fromIndex(4), Player.AI));
+
+        List<int[][]> boards = new ArrayList<>();
+        List<int[]> decidedBoards = new ArrayList<>();
+        List<Status> statuses = new ArrayList<>();
+        List<Integer> nextBoardIndexes = new ArrayList<>();
+
+        while (board.inProgress()) {
+            boards.add(board.getBoard());
+            decidedBoards.add(board.getDecidedBoards());
+            statuses.add(board.getStatus());
+            nextBoardIndexes.add(board.getNextBoardIndex());
+            board.doMove(board.getRandomMove());
+        }
+
+        for (int i = boards.size() - 1; i >= 0; i--) {
+            board.undoMove();
+            assertArrayEquals(boards.get(i), board.getBoard());
+            assertArrayEquals(decidedBoards.get(i), board.getDecidedBoards());
+            assertEquals(statuses.get(i), board.getStatus());
+            assertEquals(nextBoardIndexes.get(i), board.getNextBoardIndex());
+        }
+
+        assertThrows(IllegalStateException.class, board::undoMove);
+    }
+
+    @RepeatedTest(20)
+    void testPlayOutLeavesBoardUnchanged() {
+        board.performMove(new Move(4, Position.fromIndex(4), Player.AI));
+        board.randomPlay();
+
+        var cells = board.getBoard();
+        var decidedBoards = board.getDecidedBoards();
+        var lastMove = board.getLastMove();
+
+        int result = board.playOut(XorShiftRandom.current());
+
+        assertNotEquals(Status.IN_PROGRESS.getId(), result);
+        assertArrayEquals(cells, board.getBoard());
+        assertArrayEquals(decidedBoards, board.getDecidedBoards());
+        assertEquals(lastMove, board.getLastMove());
+        assertTrue(board.inProgress());
+    }
+
+    @RepeatedTest(20)
+    void testPlayOutStopsAfterMaximumMoves() {
+        board.performMove(new Move(4, Position.fromIndex(4), Player.AI));
+        var cells = board.getBoard();
+        int[] stonesAtCutoff = new int[1];
+        PositionEvaluator countStones = (b, playableBoards, playerIndex) -> {
+            stonesAtCutoff[0] = (int) Arrays.stream(b.getBoard()).flatMapToInt(Arrays::stream).filter(id -> id != 0).count();
+            return 0;
+        };
+
+        board.playOut(XorShiftRandom.current(), PlayoutPolicy.UNIFORM, 5, countStones, null, null);
+
+        assertEquals(6, stonesAtCutoff[0]);
+        assertArrayEquals(cells, board.getBoard());
+    }
+
+    @Test
+    void testPlayOutDoesNotAllocate() {
+        var threadBean = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().getId();
+        var random = new XorShiftRandom(42);
+
+        board.performMove(new Move(4, Position.fromIndex(4), Player.AI));
+
+        // Warm up so that the playout loop is compiled before measuring.
+        for (int i = 0; i < 20_000; i++)
+            board.playOut(random);
+
+        long measurementOverhead = -threadBean.getThreadAllocatedBytes(threadId)
+                + threadBean.getThreadAllocatedBytes(threadId);
+
+        long before = threadBean.getThreadAllocatedBytes(threadId);
+        for (int i = 0; i < 10_000; i++)
+            board.playOut(random);
+        long allocated = threadBean.getThreadAllocatedBytes(threadId) - before - measurementOverhead;
+
+        assertEquals(0, allocated, "Playouts allocated " + allocated + " bytes");
+    }
+
+    @RepeatedTest(20)
+    void testHashIsMaintainedIncrementally() {
+        board.performMove(new Move(4, Position.fromIndex(4), Player.AI));
+        List<Long> hashes = new ArrayList<>();
+
+        while (board.inProgress()) {
+            assertEquals(board.computeHash(), board.getHash());
+            hashes.add(board.getHash());
+            board.doMove(board.getRandomMoveCode());
+        }
+        assertEquals(board.computeHash(), board.getHash());
+
+        for (int i = hashes.size() - 1; i >= 0; i--) {
+            board.undoMove();
+            assertEquals(hashes.get(i), board.getHash());
+        }
+    }
+
+    @Test
+    void testHashIsEqualForTranspositions() {
+        var other = new MCTSBoard();
+
+        board.performMove(new Move(0, Position.MIDDLE_CENTER, Player.AI));
+        board.performMove(new Move(4, Position.TOP_LEFT, Player.HUMAN));
+        board.performMove(new Move(0, Position.BOTTOM_RIGHT, Player.AI));
+        board.performMove(new Move(8, Position.TOP_LEFT, Player.HUMAN));
+
+        other.doMove(new Move(0, Position.BOTTOM_RIGHT, Player.AI));
+        other.doMove(new Move(8, Position.TOP_LEFT, Player.HUMAN));
+        other.doMove(new Move(0, Position.MIDDLE_CENTER, Player.AI));
+        other.doMove(new Move(4, Position.TOP_LEFT, Player.HUMAN));
+
+        assertEquals(board.getHash(), other.getHash());
+
+        other.undoMove();
+        assertNotEquals(board.getHash(), other.getHash());
+    }
+
+    @RepeatedTest(10)
+    void testGivesFreeChoiceMatchesBoardAfterMove() {
+        var moves = new MoveSet();
+        while (board.inProgress()) {
+            board.getLegalMoves(moves);
+            for (int index = moves.nextIndex(0); index >= 0; index = moves.nextIndex(index + 1)) {
+                int boardIndex = index / 9;
+                int cell = index % 9;
+                boolean freeChoice = board.givesFreeChoice(boardIndex, cell);
+
+                board.doMove(Move.encode(boardIndex, cell, board.getNextPlayer()));
+                assertEquals(board.isDecided(cell), freeChoice);
+                board.undoMove();
+            }
+            board.randomPlay();
+        }
+    }
+
+    @RepeatedTest(10)
+    void testCopyFromOverwritesWholeState() {
+        board.performMove(new Move(4, Position.fromIndex(4), Player.AI));
+        board.randomPlay();
+
+        var other = new MCTSBoard();
+        other.doMove(new Move(0, Position.TOP_LEFT, Player.AI));
+        other.copyFrom(board);
+
+        assertArrayEquals(board.getBoard(), other.getBoard());
+        assertArrayEquals(board.getDecidedBoards(), other.getDecidedBoards());
+        assertEquals(board.getStatus(), other.getStatus());
+        assertEquals(board.getLastMove(), other.getLastMove());
+        assertEquals(board.getHash(), other.getHash());
+        assertThrows(IllegalStateException.class, other::undoMove);
+    }
+
+    @RepeatedTest(10)
+    void testPlayOutRecordsSimulatedMovesPerPlayer() {
+        board.performMove(new Move(4, Position.fromIndex(4), Player.AI));
+        var humanMoves = new MoveSet();
+        var aiMoves = new MoveSet();
+        var cells = board.getBoard();
+
+        board.playOut(XorShiftRandom.current(), humanMoves, aiMoves);
+
+        assertArrayEquals(cells, board.getBoard());
+        assertTrue(humanMoves.size() > 0);
+        assertTrue(humanMoves.size() - aiMoves.size() == 0 || humanMoves.size() - aiMoves.size() == 1);
+        for (int index = 0; index < MoveSet.SIZE; index++) {
+            assertFalse(humanMoves.contains(index) && aiMoves.contains(index));
+            if (humanMoves.contains(index) || aiMoves.contains(index))
+                assertEquals(0, cells[index / 9][index % 9]);
+        }
+    }
+
 }
@@ -0,0 +1,117 @@
+package board;
+
+import common.Move;
+import common.Player;
+import common.Status;
+import common.XorShiftRandom;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.RepeatedTest;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PlayoutPolicyTest {
+
+    private MCTSBoard board;
+    private XorShiftRandom random;
+
+    @BeforeEach
+    void setUp() {
+        board = new MCTSBoard();
+        random = new XorShiftRandom(7);
+    }
+
+    /**
+     * Plays alternating moves, starting with the AI. Each move is given as board index followed by cell.
+     */
+    private void play(int... boardsAndCells) {
+        var player = Player.AI;
+        for (int i = 0; i < boardsAndCells.length; i += 2) {
+            board.doMove(Move.encode(boardsAndCells[i], boardsAndCells[i + 1], player));
+            player = player == Player.AI ? Player.HUMAN : Player.AI;
+        }
+    }
+
+    @RepeatedTest(10)
+    void testUniformPolicyPlaysEmptyCellOfPlayableBoard() {
+        play(4, 0, 0, 4, 4, 1, 1, 4);
+
+        int playable = 1 << 4 | 1 << 7;
+        int move = PlayoutPolicy.UNIFORM.selectMove(board, playable, 1, random);
+
+        assertNotEquals(0, playable & 1 << move / 9);
+        assertNotEquals(0, board.getEmptyCells(move / 9) & 1 << move % 9);
+    }
+
+    @RepeatedTest(10)
+    void testWinBlockPolicyTakesLocalWin() {
+        // AI holds cells 0 and 1 of board 4, the human holds cells 3 and 4 of board 7.
+        play(4, 0, 7, 3, 4, 1, 7, 4);
+
+        int move = new WinBlockPlayoutPolicy().selectMove(board, 1 << 4 | 1 << 7, 1, random);
+
+        assertEquals(MoveSet.indexOf(4, 2), move);
+    }
+
+    @RepeatedTest(10)
+    void testWinBlockPolicyBlocksOpponent() {
+        // The human holds cells 0 and 1 of board 4.
+        play(2, 4, 4, 0, 0, 3, 4, 1);
+
+        int move = new WinBlockPlayoutPolicy().selectMove(board, 1 << 4, 1, random);
+
+        assertEquals(MoveSet.indexOf(4, 2), move);
+    }
+
+    @RepeatedTest(10)
+    void testWinBlockPolicyPrefersGameWinningBoard() {
+        // AI wins boards 0 and 3, then threatens local wins on boards 2 and 6; only board 6 completes a line.
+        play(0, 0, 8, 0, 0, 1, 8, 1, 0, 2, 8, 5, 3, 0, 8, 6, 3, 1, 7, 0,
+                3, 2, 7, 1, 2, 3, 7, 5, 2, 4, 7, 6, 6, 3, 5, 0, 6, 4, 5, 1);
+
+        int move = new WinBlockPlayoutPolicy().selectMove(board, 1 << 2 | 1 << 6, 1, random);
+
+        assertEquals(MoveSet.indexOf(6, 5), move);
+    }
+
+    @Test
+    void testWinBlockPolicyFallsBackWithoutThreats() {
+        play(4, 4);
+        PlayoutPolicy fallback = (b, playable, playerIndex, r) -> MoveSet.indexOf(4, 0);
+
+        int move = new WinBlockPlayoutPolicy(fallback).selectMove(board, 1 << 4, 0, random);
+
+        assertEquals(MoveSet.indexOf(4, 0), move);
+    }
+
+    @Test
+    void testEpsilonGreedyPolicyRejectsInvalidEpsilon() {
+        assertThrows(IllegalArgumentException.class, () -> new EpsilonGreedyPlayoutPolicy(PlayoutPolicy.UNIFORM, -0.1));
+        assertThrows(IllegalArgumentException.class, () -> new EpsilonGreedyPlayoutPolicy(PlayoutPolicy.UNIFORM, 1.1));
+        assertThrows(IllegalArgumentException.class, () -> new EpsilonGreedyPlayoutPolicy(PlayoutPolicy.UNIFORM, Double.NaN));
+    }
+
+    @Test
+    void testEpsilonGreedyPolicyWithoutEpsilonIsGreedy() {
+        play(4, 0, 7, 3, 4, 1, 7, 4);
+        var policy = new EpsilonGreedyPlayoutPolicy(new WinBlockPlayoutPolicy(), 0);
+
+        for (int i = 0; i < 100; i++)
+            assertEquals(MoveSet.indexOf(4, 2), policy.selectMove(board, 1 << 4, 1, random));
+    }
+
+    @RepeatedTest(20)
+    void testPlayOutWithPolicyLeavesBoardUnchanged() {
+        play(4, 4);
+        board.randomPlay();
+        var cells = board.getBoard();
+        long hash = board.getHash();
+
+        int result = board.playOut(random, new EpsilonGreedyPlayoutPolicy(new WinBlockPlayoutPolicy(), 0.2), null, null);
+
+        assertNotEquals(Status.IN_PROGRESS.getId(), result);
+        assertArrayEquals(cells, board.getBoard());
+        assertEquals(hash, board.getHash());
+    }
+
+}
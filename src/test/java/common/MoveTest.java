@@ -0,0 +1,35 @@
+package common;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class MoveTest {
+
+    @Test
+    void testEncodeRoundTrip() {
+        for (Player player : Player.values()) {
+            for (int boardIndex = 0; boardIndex < 9; boardIndex++) {
+                for (int cell = 0; cell < 9; cell++) {
+                    int code = Move.encode(boardIndex, cell, player);
+
+                    assertEquals(boardIndex, Move.boardOf(code));
+                    assertEquals(cell, Move.cellOf(code));
+                    assertEquals(player, Move.playerOf(code));
+                    assertEquals(new Move(boardIndex, Position.fromIndex(cell), player), Move.of(code));
+                    assertEquals(code, Move.of(code).code());
+                }
+            }
+        }
+    }
+
+    @Test
+    void testCanonicalInstances() {
+        var move = Move.of(3, Position.MIDDLE_CENTER, Player.AI);
+
+        assertSame(move, Move.of(move.code()));
+        assertSame(move, Move.of(new Move(3, Position.MIDDLE_CENTER, Player.AI).code()));
+        assertNull(Move.of(Move.NONE));
+    }
+
+}
@@ -0,0 +1,99 @@
+package engine;
+
+import board.HeuristicEvaluator;
+import board.MCTSBoard;
+import common.Move;
+import common.Player;
+import common.Status;
+import org.junit.jupiter.api.RepeatedTest;
+import org.junit.jupiter.api.Test;
+import solver.EndgameSolver;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class AlphaBetaEngineTest {
+
+    /**
+     * Plays random moves on the board and the engine until at most the given number of open cells is left.
+     *
+     * @return true if the game is still in progress, false if it ended first.
+     */
+    private static boolean playRandomly(MCTSBoard board, AlphaBetaEngine engine, int openCells) {
+        while (board.inProgress() && board.countOpenCells() > openCells) {
+            int move = board.getRandomMoveCode();
+            board.performMove(move);
+            engine.applyOpponentMove(Move.of(move));
+        }
+        return board.inProgress();
+    }
+
+    @RepeatedTest(10)
+    void testEngineKeepsProvenWin() {
+        var solver = new EndgameSolver();
+        while (true) {
+            var board = new MCTSBoard();
+            var engine = new AlphaBetaEngine(1, 1 << 16, new HeuristicEvaluator());
+            // Leave enough time to search to the end of the game, so that the choice is exact.
+            engine.setTimeLimit(60_000);
+            if (!playRandomly(board, engine, 14) || solver.solve(board).value() != EndgameSolver.WIN)
+                continue;
+
+            var player = board.getNextPlayer();
+            var move = engine.getNextMove();
+            board.performMove(move);
+
+            assertEquals(player, move.player());
+            if (board.inProgress())
+                assertEquals(EndgameSolver.LOSS, solver.solve(board).value());
+            else
+                assertEquals(player == Player.AI ? Status.AI_WIN : Status.HUMAN_WIN, board.getStatus());
+            return;
+        }
+    }
+
+    @Test
+    void testFirstIterationCompletesWithinAnyTimeLimit() {
+        var engine = new AlphaBetaEngine(1);
+        engine.setTimeLimit(1);
+
+        var move = engine.getNextMove();
+
+        assertEquals(Player.AI, move.player());
+        assertTrue(engine.getCompletedDepth() >= 1);
+        assertTrue(engine.getNodes() > 0);
+    }
+
+    @Test
+    void testMaxDepthBoundsSearch() {
+        var engine = new AlphaBetaEngine(10);
+        engine.setMaxDepth(3);
+
+        engine.getNextMove();
+
+        assertEquals(3, engine.getCompletedDepth());
+    }
+
+    @Test
+    void testEnginePlaysBothSides() {
+        var engine = new AlphaBetaEngine(1);
+        engine.setMaxDepth(2);
+        engine.applyOpponentMove(Move.of(Move.encode(4, 4, Player.AI)));
+
+        var move = engine.getNextMove();
+
+        assertEquals(Player.HUMAN, move.player());
+        assertEquals(4, move.boardIndex());
+    }
+
+    @Test
+    void testEngineRejectsInvalidSettings() {
+        var engine = new AlphaBetaEngine(1);
+
+        assertThrows(IllegalArgumentException.class, () -> new AlphaBetaEngine(0));
+        assertThrows(IllegalArgumentException.class, () -> new AlphaBetaEngine(1, 1000, new HeuristicEvaluator()));
+        assertThrows(IllegalArgumentException.class, () -> engine.setTimeLimit(0));
+        assertThrows(IllegalArgumentException.class, () -> engine.setMaxDepth(0));
+        assertThrows(IllegalArgumentException.class, () -> engine.setMaxDepth(AlphaBetaEngine.MAX_DEPTH + 1));
+    }
+
+}
@@ -0,0 +1,101 @@
+package engine;
+
+import board.MCTSBoard;
+import common.Move;
+import common.Player;
+import common.Status;
+import mcts.MCTSAgent;
+import mcts.SearchLimits;
+
+/**
+ * Plays MCTS against alpha-beta at equal time per move to compare their strength per CPU millisecond.
+ * For each time budget, the engines play a series of games, alternating who moves first.
+ * Not a unit test; run it with
+ * {@code mvn test-compile exec:java -Dexec.classpathScope=test -Dexec.mainClass=engine.EngineBenchmark
+ * -Dexec.args="<games per budget> <millis per move>..."}.
+ */
+public class EngineBenchmark {
+
+    private static final long[] DEFAULT_BUDGETS = {25, 100, 400};
+
+    public static void main(String[] args) {
+        int games = args.length > 0 ? Integer.parseInt(args[0]) : 20;
+        long[] budgets = DEFAULT_BUDGETS;
+        if (args.length > 1) {
+            budgets = new long[args.length - 1];
+            for (int i = 1; i < args.length; i++)
+                budgets[i - 1] = Long.parseLong(args[i]);
+        }
+
+        for (long millis : budgets) {
+            int mctsWins = 0;
+            int alphaBetaWins = 0;
+            long alphaBetaDepths = 0;
+            long alphaBetaMoves = 0;
+
+            for (int game = 0; game < games; game++) {
+                var mcts = new MCTSAgent(1);
+                mcts.setSearchLimits(SearchLimits.ofMillis(millis));
+                var alphaBeta = new AlphaBetaEngine(1);
+                alphaBeta.setTimeLimit(millis);
+
+                boolean mctsFirst = game % 2 == 0;
+                var board = new MCTSBoard();
+                // Both engines play the side moving first as the AI; the second engine sees the players swapped.
+                SearchEngine[] engines = mctsFirst
+                        ? new SearchEngine[]{mcts, new Mirrored(alphaBeta)}
+                        : new SearchEngine[]{alphaBeta, new Mirrored(mcts)};
+
+                for (int turn = 0; board.inProgress(); turn ^= 1) {
+                    var move = engines[turn].getNextMove();
+                    board.performMove(move);
+                    engines[turn ^ 1].applyOpponentMove(move);
+                    if (engines[turn] == alphaBeta || engines[turn] instanceof Mirrored mirrored && mirrored.engine == alphaBeta) {
+                        alphaBetaDepths += alphaBeta.getCompletedDepth();
+                        alphaBetaMoves++;
+                    }
+                }
+
+                if (board.getStatus() == Status.AI_WIN) {
+                    if (mctsFirst) mctsWins++; else alphaBetaWins++;
+                } else if (board.getStatus() == Status.HUMAN_WIN) {
+                    if (mctsFirst) alphaBetaWins++; else mctsWins++;
+                }
+            }
+
+            System.out.printf("%d ms per move: MCTS wins=%d, alpha-beta wins=%d, draws=%d, alpha-beta average depth=%.1f%n",
+                    millis, mctsWins, alphaBetaWins, games - mctsWins - alphaBetaWins,
+                    (double) alphaBetaDepths / alphaBetaMoves);
+        }
+    }
+
+    /**
+     * Presents the game to an engine with the players swapped, so that an engine searching as the AI
+     * can play the human's side.
+     */
+    private static class Mirrored implements SearchEngine {
+
+        private final SearchEngine engine;
+
+        Mirrored(SearchEngine engine) {
+            this.engine = engine;
+        }
+
+        @Override
+        public Move getNextMove() {
+            return swap(engine.getNextMove());
+        }
+
+        @Override
+        public void applyOpponentMove(Move move) {
+            engine.applyOpponentMove(swap(move));
+        }
+
+        private static Move swap(Move move) {
+            var player = move.player() == Player.AI ? Player.HUMAN : Player.AI;
+            return Move.of(move.boardIndex(), move.position(), player);
+        }
+
+    }
+
+}
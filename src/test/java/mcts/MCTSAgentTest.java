@@ -0,0 +1,143 @@
+package mcts;
+
+import board.MCTSBoard;
+import board.MoveSet;
+import common.Move;
+import common.Player;
+import common.Status;
+import org.junit.jupiter.api.RepeatedTest;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+import solver.EndgameSolver;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ForkJoinWorkerThread;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class MCTSAgentTest {
+
+    /**
+     * Plays random moves until the AI is to move in a won position with at most the given number of open cells.
+     *
+     * @return The moves leading to the position.
+     */
+    private static List<Integer> gameWithWinForAI(int openCells) {
+        while (true) {
+            var board = new MCTSBoard();
+            var history = new ArrayList<Integer>();
+            while (board.inProgress() && board.countOpenCells() > openCells) {
+                int move = board.getRandomMoveCode();
+                board.performMove(move);
+                history.add(move);
+            }
+
+            if (board.inProgress() && board.getNextPlayer() == Player.AI) {
+                var result = new EndgameSolver().solve(board);
+                if (result != null && result.value() == EndgameSolver.WIN)
+                    return history;
+            }
+        }
+    }
+
+    @RepeatedTest(10)
+    void testAgentPlaysSolvedEndgameToWin() {
+        var agent = new MCTSAgent(1);
+        // A single iteration leaves the search blind, so only the solver can find the win.
+        agent.setSearchLimits(SearchLimits.ofIterations(1));
+        var board = new MCTSBoard();
+        for (int move : gameWithWinForAI(15)) {
+            board.performMove(move);
+            agent.updateTree(Move.of(move));
+        }
+
+        var solver = new EndgameSolver();
+        while (board.inProgress()) {
+            if (board.getNextPlayer() == Player.AI) {
+                var move = agent.getNextMove();
+                board.performMove(move);
+            } else {
+                int reply = solver.solve(board).move();
+                board.performMove(reply);
+                agent.updateTree(Move.of(reply));
+            }
+        }
+
+        assertEquals(Status.AI_WIN, board.getStatus());
+    }
+
+    @Test
+    void testRetainedNodesStayFlatOverGame() {
+        int iterations = 500;
+        var agent = new MCTSAgent(1);
+        agent.setSearchLimits(SearchLimits.ofIterations(iterations));
+        agent.setEndgameThreshold(0);
+        var board = new MCTSBoard();
+
+        var move = agent.getNextMove();
+        board.performMove(move);
+        // The played move is the most visited child, so its subtree is kept.
+        assertTrue(agent.getRetainedNodes() > 1);
+
+        while (board.inProgress()) {
+            if (board.getNextPlayer() == Player.AI) {
+                board.performMove(agent.getNextMove());
+            } else {
+                var reply = board.getRandomMove();
+                board.performMove(reply);
+                agent.applyOpponentMove(reply);
+            }
+
+            int retained = agent.getRetainedNodes();
+            assertTrue(retained >= 1 && retained <= 2 * iterations, "Retained nodes: " + retained);
+        }
+    }
+
+    @Test
+    void testEndgameSolverCountsAgainstMoveTime() {
+        var agent = new MCTSAgent(1);
+        agent.setSearchLimits(SearchLimits.ofMillis(100));
+        // The solver gives up on the opening, so the search has to make do with the rest of the budget.
+        agent.setEndgameThreshold(MoveSet.SIZE);
+
+        long start = System.nanoTime();
+        agent.getNextMove();
+        long elapsed = System.nanoTime() - start;
+
+        assertTrue(elapsed < 250_000_000L, "Elapsed: " + elapsed);
+    }
+
+    @ParameterizedTest
+    @EnumSource(Parallelism.class)
+    void testStopShutsDownSearchThreads(Parallelism parallelism) throws InterruptedException {
+        var before = Set.copyOf(Thread.getAllStackTraces().keySet());
+        var agent = new MCTSAgent(1, MCTSAgent.DEFAULT_TABLE_SIZE, 2, parallelism);
+        agent.setSearchLimits(SearchLimits.ofIterations(200));
+        agent.getNextMove();
+
+        var workers = new ArrayList<Thread>();
+        for (var thread : Thread.getAllStackTraces().keySet()) {
+            if (!before.contains(thread) && thread instanceof ForkJoinWorkerThread)
+                workers.add(thread);
+        }
+        assertFalse(workers.isEmpty());
+
+        agent.stop();
+        // Idle workers of a pool that is not shut down would stay alive for a minute.
+        for (var worker : workers) {
+            worker.join(5_000);
+            assertFalse(worker.isAlive());
+        }
+    }
+
+    @Test
+    void testEndgameThresholdRejectsNegativeValue() {
+        var agent = new MCTSAgent(1);
+
+        assertThrows(IllegalArgumentException.class, () -> agent.setEndgameThreshold(-1));
+    }
+
+}
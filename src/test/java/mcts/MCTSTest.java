@@ -0,0 +1,254 @@
+package mcts;
+
+import board.HeuristicEvaluator;
+import board.MCTSBoard;
+import common.Move;
+import common.Player;
+import common.Position;
+import common.Status;
+import mcts.tree.Node;
+import mcts.tree.TranspositionTable;
+import mcts.tree.Tree;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayDeque;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class MCTSTest {
+
+    @Test
+    void testTreeParallelSearchReleasesAllVirtualLosses() {
+        var pool = new ForkJoinPool(4);
+        var tree = new Tree();
+        var mcts = new MCTS(tree, 1, pool, 4);
+
+        try {
+            mcts.updateTree(Move.of(4, Position.MIDDLE_CENTER, Player.HUMAN).code());
+            var root = tree.getRoot();
+
+            var move = mcts.rollout();
+
+            assertEquals(Player.AI, move.player());
+            assertEquals(4, move.boardIndex());
+
+            var pending = new ArrayDeque<Node>();
+            pending.add(root);
+            while (!pending.isEmpty()) {
+                var node = pending.poll();
+                assertEquals(0, node.getVirtualLoss());
+                pending.addAll(node.getChildren());
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    void testLeafParallelSearchBackpropagatesWholeBatches() {
+        var pool = new ForkJoinPool(4);
+        var tree = new Tree();
+        var mcts = new MCTS(tree, 1);
+        mcts.setLeafParallelism(pool, 4);
+
+        try {
+            mcts.updateTree(Move.of(4, Position.MIDDLE_CENTER, Player.HUMAN).code());
+            var root = tree.getRoot();
+
+            mcts.search();
+
+            assertTrue(root.getVisits() > 0);
+            assertEquals(0, root.getVisits() % 4);
+            assertTrue(Math.abs(root.getWinScore()) <= 100 * root.getVisits());
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    void testLeafParallelismRejectsEmptyBatch() {
+        var mcts = new MCTS(1);
+
+        assertThrows(IllegalArgumentException.class, () -> mcts.setLeafParallelism(ForkJoinPool.commonPool(), 0));
+    }
+
+    @Test
+    void testPonderingKeepsStatisticsOfPlayedMove() throws InterruptedException {
+        var tree = new Tree();
+        var mcts = new MCTS(tree, 1);
+
+        mcts.updateTree(Move.of(4, Position.MIDDLE_CENTER, Player.HUMAN).code());
+        mcts.rollout();
+        int visitsBefore = tree.getRoot().getVisits();
+
+        mcts.startPondering();
+        assertTrue(mcts.isPondering());
+        Thread.sleep(50);
+        mcts.stopPondering();
+        assertFalse(mcts.isPondering());
+
+        var root = tree.getRoot();
+        assertTrue(root.getVisits() > visitsBefore);
+
+        var reply = root.getChildWithMaxScore();
+        int replyVisits = reply.getVisits();
+        mcts.updateTree(reply.getMove());
+
+        assertSame(reply, tree.getRoot());
+        assertEquals(replyVisits, tree.getRoot().getVisits());
+    }
+
+    @Test
+    void testIterationBudgetRunsExactNumberOfIterations() {
+        var tree = new Tree();
+        var mcts = new MCTS(tree, 10);
+        mcts.setSearchLimits(SearchLimits.ofIterations(500));
+
+        mcts.updateTree(Move.of(4, Position.MIDDLE_CENTER, Player.HUMAN).code());
+        mcts.search();
+
+        assertEquals(500, tree.getRoot().getVisits());
+    }
+
+    @Test
+    void testPlayoutCutoffBackpropagatesEvaluatorScore() {
+        var tree = new Tree();
+        var mcts = new MCTS(tree, 10);
+        mcts.setSearchLimits(SearchLimits.ofIterations(200));
+        mcts.setPlayoutCutoff(4, (board, playableBoards, playerIndex) -> 37);
+
+        mcts.updateTree(Move.of(4, Position.MIDDLE_CENTER, Player.HUMAN).code());
+        mcts.search();
+
+        var root = tree.getRoot();
+        assertEquals(200, root.getVisits());
+        assertEquals(37 * 200, root.getWinScore());
+    }
+
+    @Test
+    void testPlayoutCutoffRejectsInvalidSettings() {
+        var mcts = new MCTS(new Tree(), 10);
+
+        assertThrows(IllegalArgumentException.class, () -> mcts.setPlayoutCutoff(0, new HeuristicEvaluator()));
+        assertThrows(IllegalArgumentException.class, () -> mcts.setPlayoutCutoff(10, null));
+        assertDoesNotThrow(() -> mcts.setPlayoutCutoff(MCTS.FULL_PLAYOUT, null));
+    }
+
+    @Test
+    void testNodeBudgetBoundsTreeSize() {
+        var tree = new Tree();
+        var mcts = new MCTS(tree, 10);
+        mcts.setSearchLimits(SearchLimits.ofIterations(100_000).withMaxNodes(200));
+
+        mcts.updateTree(Move.of(4, Position.MIDDLE_CENTER, Player.HUMAN).code());
+        mcts.search();
+
+        int nodes = 0;
+        var pending = new ArrayDeque<Node>();
+        pending.add(tree.getRoot());
+        while (!pending.isEmpty()) {
+            nodes++;
+            pending.addAll(pending.poll().getChildren());
+        }
+
+        assertEquals(nodes, tree.size());
+        assertTrue(nodes >= 200 && nodes < 200 + 9);
+    }
+
+    @Test
+    void testRaveSearchUpdatesAmafStatisticsOfRootChildren() {
+        var tree = new Tree();
+        var mcts = new MCTS(tree, 10);
+        mcts.setSearchLimits(SearchLimits.ofIterations(2_000));
+        mcts.setRaveEquivalence(300);
+
+        mcts.updateTree(Move.of(4, Position.MIDDLE_CENTER, Player.HUMAN).code());
+        mcts.search();
+
+        var root = tree.getRoot();
+        assertEquals(2_000, root.getVisits());
+        for (var child : root.getChildren()) {
+            assertTrue(child.getAmafVisits() > 0);
+            assertTrue(Math.abs(child.getAmafScore()) <= 100 * child.getAmafVisits());
+        }
+    }
+
+    @Test
+    void testRaveKeepsAmafStatisticsPerEdgeWithTranspositionTable() {
+        var table = new TranspositionTable(1 << 16);
+        var tree = new Tree(table);
+        var mcts = new MCTS(tree, 10);
+        mcts.setSearchLimits(SearchLimits.ofIterations(2_000));
+        mcts.setRaveEquivalence(300);
+        mcts.updateTree(Move.of(4, Position.MIDDLE_CENTER, Player.HUMAN).code());
+
+        // Both move orders reach the same position from different parents.
+        var root = tree.getRoot();
+        var first = childOf(childOf(childOf(childOf(root, table, 4, 0), table, 0, 4), table, 4, 1), table, 1, 4);
+        var transposed = childOf(childOf(childOf(childOf(root, table, 4, 1), table, 1, 4), table, 4, 0), table, 0, 4);
+
+        // Search below the parent of the first node only, so only its edge is on the selected paths.
+        mcts.updateTree(Move.encode(4, 0, Player.AI));
+        mcts.updateTree(Move.encode(0, 4, Player.HUMAN));
+        mcts.updateTree(Move.encode(4, 1, Player.AI));
+        assertSame(first.getParent(), tree.getRoot());
+        mcts.search();
+
+        assertTrue(first.getVisits() > 0);
+        assertEquals(first.getVisits(), transposed.getVisits());
+        assertTrue(first.getAmafVisits() > 0);
+        assertEquals(0, transposed.getAmafVisits());
+    }
+
+    @Test
+    void testSolverPlaysProvenWinImmediately() {
+        var board = findPositionWithWinningMoveForAI();
+        var tree = new Tree();
+        tree.setRoot(new Node(board));
+        var root = tree.getRoot();
+        var mcts = new MCTS(tree, 10);
+        mcts.setSearchLimits(SearchLimits.ofIterations(100_000));
+
+        var move = mcts.rollout();
+        board.performMove(move);
+
+        assertEquals(Status.AI_WIN, board.getStatus());
+        assertEquals(Status.AI_WIN, root.getProof());
+        assertTrue(root.getVisits() < 100_000);
+        assertTrue(tree.getRoot().isProvenWin());
+    }
+
+    /**
+     * Plays random games until the AI is to move on a forced board with a move that wins the game.
+     */
+    private static MCTSBoard findPositionWithWinningMoveForAI() {
+        while (true) {
+            var board = new MCTSBoard();
+            while (board.inProgress()) {
+                var moves = board.getNextMoves();
+                if (board.nextMovesComplete() && !moves.isEmpty() && moves.get(0).player() == Player.AI) {
+                    for (var move : moves) {
+                        var next = new MCTSBoard(board);
+                        next.performMove(move);
+                        if (next.getStatus() == Status.AI_WIN)
+                            return board;
+                    }
+                }
+                board.performMove(board.getRandomMoveCode());
+            }
+        }
+    }
+
+    /**
+     * Expands a node completely and retrieves the child reached by the next player's move.
+     *
+     * @return The child node.
+     */
+    private static Node childOf(Node node, TranspositionTable table, int boardIndex, int cell) {
+        node.expandChildren(table);
+        int move = Move.encode(boardIndex, cell, node.getBoard().getNextPlayer());
+        return node.getChildren().stream().filter(child -> child.getMove() == move).findFirst().orElseThrow();
+    }
+
+}
@@ -0,0 +1,103 @@
+package mcts;
+
+import board.MCTSBoard;
+import common.Move;
+import common.Player;
+import common.Position;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class OpeningBookTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void testWrittenEntriesCanBeLookedUp() throws IOException {
+        var path = directory.resolve("book.bin");
+        int move = Move.encode(4, 4, Player.AI);
+        OpeningBook.write(path, List.of(
+                new OpeningBook.Entry(42, move, 1000),
+                new OpeningBook.Entry(-7, Move.encode(0, 0, Player.AI), 10),
+                new OpeningBook.Entry(Long.MAX_VALUE, Move.encode(8, 8, Player.AI), 20)));
+
+        var book = OpeningBook.open(path);
+
+        assertEquals(3, book.size());
+        assertEquals(move, book.lookup(42));
+        assertEquals(1000, book.getVisits(42));
+        assertEquals(Move.encode(0, 0, Player.AI), book.lookup(-7));
+        assertEquals(Move.encode(8, 8, Player.AI), book.lookup(Long.MAX_VALUE));
+        assertEquals(Move.NONE, book.lookup(43));
+        assertEquals(0, book.getVisits(43));
+    }
+
+    @Test
+    void testLookupRejectsIllegalBookMove() throws IOException {
+        var path = directory.resolve("book.bin");
+        var board = new MCTSBoard();
+        board.performMove(Move.of(4, Position.MIDDLE_CENTER, Player.HUMAN));
+        // The AI is sent to board 4, where the middle cell is taken.
+        OpeningBook.write(path, List.of(new OpeningBook.Entry(board.getHash(), Move.encode(4, 4, Player.AI), 1)));
+
+        var book = OpeningBook.open(path);
+
+        assertEquals(Move.encode(4, 4, Player.AI), book.lookup(board.getHash()));
+        assertEquals(Move.NONE, book.lookup(board));
+    }
+
+    @Test
+    void testWriteRejectsDuplicatePositions() {
+        var entries = List.of(new OpeningBook.Entry(1, 0, 1), new OpeningBook.Entry(1, 1, 1));
+
+        assertThrows(IllegalArgumentException.class, () -> OpeningBook.write(directory.resolve("book.bin"), entries));
+    }
+
+    @Test
+    void testOpenRejectsOtherFiles() throws IOException {
+        var path = directory.resolve("other.bin");
+        Files.write(path, new byte[]{1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11, 12, 13});
+
+        assertThrows(IOException.class, () -> OpeningBook.open(path));
+    }
+
+    @Test
+    void testBuilderCoversBothStartingPlayers() {
+        var entries = new OpeningBookBuilder(2, SearchLimits.ofIterations(50)).build();
+
+        // The empty board, and the 81 openings of the human.
+        assertEquals(82, entries.size());
+        assertTrue(entries.stream().allMatch(entry -> Move.playerOf(entry.move()) == Player.AI));
+    }
+
+    @Test
+    void testAgentPlaysBookMoveUntilGameLeavesBook() throws IOException {
+        var path = directory.resolve("book.bin");
+        var board = new MCTSBoard();
+        board.performMove(Move.of(4, Position.MIDDLE_CENTER, Player.HUMAN));
+        int bookMove = Move.encode(4, 0, Player.AI);
+        OpeningBook.write(path, List.of(new OpeningBook.Entry(board.getHash(), bookMove, 1)));
+
+        var agent = new MCTSAgent(1);
+        agent.setSearchLimits(SearchLimits.ofIterations(100));
+        agent.setOpeningBook(OpeningBook.open(path));
+        agent.updateTree(Move.of(4, Position.MIDDLE_CENTER, Player.HUMAN));
+
+        assertEquals(Move.of(bookMove), agent.getNextMove());
+
+        // The human sends the AI to board 0, which is not in the book, so the agent searches its advanced tree.
+        agent.updateTree(Move.of(0, Position.TOP_LEFT, Player.HUMAN));
+        var move = agent.getNextMove();
+
+        assertEquals(0, move.boardIndex());
+        assertEquals(Player.AI, move.player());
+    }
+
+}
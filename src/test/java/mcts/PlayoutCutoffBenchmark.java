@@ -0,0 +1,101 @@
+package mcts;
+
+import board.HeuristicEvaluator;
+import board.MCTSBoard;
+import common.Move;
+import common.Player;
+import common.Position;
+import common.Status;
+import mcts.tree.Tree;
+
+/**
+ * Compares MCTS with depth-limited playouts against MCTS with full playouts at equal time per move:
+ * first the iterations per second of both, then the results of games between them, alternating
+ * who moves first. Not a unit test; run it with
+ * {@code mvn test-compile exec:java -Dexec.classpathScope=test -Dexec.mainClass=mcts.PlayoutCutoffBenchmark
+ * -Dexec.args="<games> <millis per move> <playout depth>"}.
+ */
+public class PlayoutCutoffBenchmark {
+
+    private static final int ROUNDS = 3;
+
+    public static void main(String[] args) {
+        int games = args.length > 0 ? Integer.parseInt(args[0]) : 20;
+        long millis = args.length > 1 ? Long.parseLong(args[1]) : 100;
+        int depth = args.length > 2 ? Integer.parseInt(args[2]) : 20;
+        var limits = SearchLimits.ofMillis(millis);
+
+        System.out.printf("full playouts:  iterations/s=%.0f%n", iterationsPerSecond(MCTS.FULL_PLAYOUT, limits));
+        System.out.printf("depth %d:       iterations/s=%.0f%n", depth, iterationsPerSecond(depth, limits));
+
+        int wins = 0;
+        int losses = 0;
+        for (int game = 0; game < games; game++) {
+            boolean cutoffFirst = game % 2 == 0;
+            var status = playGame(createEngine(cutoffFirst ? depth : MCTS.FULL_PLAYOUT, limits),
+                    createEngine(cutoffFirst ? MCTS.FULL_PLAYOUT : depth, limits));
+
+            if (status == (cutoffFirst ? Status.AI_WIN : Status.HUMAN_WIN))
+                wins++;
+            else if (status != Status.DRAW)
+                losses++;
+        }
+        System.out.printf("depth %d vs full playouts: wins=%d losses=%d draws=%d%n", depth, wins, losses, games - wins - losses);
+    }
+
+    private static MCTS createEngine(int depth, SearchLimits limits) {
+        var mcts = new MCTS(new Tree(), 1);
+        mcts.setSearchLimits(limits);
+        if (depth != MCTS.FULL_PLAYOUT)
+            mcts.setPlayoutCutoff(depth, new HeuristicEvaluator());
+        return mcts;
+    }
+
+    private static double iterationsPerSecond(int depth, SearchLimits limits) {
+        long iterations = 0;
+        long nanos = 0;
+
+        // The first round only warms up the JIT.
+        for (int round = 0; round <= ROUNDS; round++) {
+            var mcts = createEngine(depth, limits);
+            mcts.updateTree(Move.of(4, Position.MIDDLE_CENTER, Player.HUMAN).code());
+
+            long start = System.nanoTime();
+            mcts.search();
+            if (round > 0) {
+                nanos += System.nanoTime() - start;
+                iterations += mcts.getTree().getRoot().getVisits();
+            }
+        }
+        return iterations / (nanos / 1e9);
+    }
+
+    /**
+     * Plays a game between two engines. Both search as the AI, so the second engine sees every move
+     * with the players swapped.
+     *
+     * @return The result from the first engine's point of view, with the first engine as AI.
+     */
+    private static Status playGame(MCTS first, MCTS second) {
+        var board = new MCTSBoard();
+        var engines = new MCTS[]{first, second};
+        int turn = 0;
+
+        while (board.inProgress()) {
+            var engine = engines[turn];
+            var other = engines[turn ^ 1];
+            int move = engine.rollout().code();
+
+            board.performMove(turn == 0 ? move : swapPlayer(move));
+            other.updateTree(swapPlayer(move));
+            turn ^= 1;
+        }
+        return board.getStatus();
+    }
+
+    private static int swapPlayer(int move) {
+        var player = Move.playerOf(move) == Player.AI ? Player.HUMAN : Player.AI;
+        return Move.encode(Move.boardOf(move), Move.cellOf(move), player);
+    }
+
+}
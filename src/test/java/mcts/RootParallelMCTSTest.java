@@ -0,0 +1,102 @@
+package mcts;
+
+import board.GlobalBoard;
+import board.MCTSBoard;
+import common.Move;
+import common.Player;
+import common.Position;
+import common.Status;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class RootParallelMCTSTest {
+
+    @Test
+    void testRolloutReturnsLegalMoveAndAdvancesAllTrees() {
+        var pool = new ForkJoinPool(2);
+        var search = new RootParallelMCTS(1, 2, 1024, pool);
+        var board = new GlobalBoard();
+
+        try {
+            var humanMove = Move.of(0, Position.MIDDLE_CENTER, Player.HUMAN);
+            board.performMove(humanMove);
+            search.updateTree(humanMove.code());
+
+            var aiMove = search.rollout();
+
+            assertEquals(Player.AI, aiMove.player());
+            assertTrue(board.isValidHumanMove(aiMove.boardIndex(), aiMove.position().getIndex()));
+
+            board.performMove(aiMove);
+            var nextHumanMove = Move.of(aiMove.position().getIndex(), Position.TOP_LEFT, Player.HUMAN);
+            if (board.isValidHumanMove(nextHumanMove.boardIndex(), Position.TOP_LEFT.getIndex())) {
+                search.updateTree(nextHumanMove.code());
+                assertNotNull(search.rollout());
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    void testProvenWinOfOneWorkerIsPlayedWithoutSearching() {
+        var pool = new ForkJoinPool(2);
+        var search = new RootParallelMCTS(1, 2, 0, pool);
+        var board = new MCTSBoard();
+
+        try {
+            for (int move : gameWithWinningMoveForAI()) {
+                board.performMove(move);
+                search.updateTree(move);
+            }
+
+            // Only the second worker searches far enough to prove the win.
+            var prover = search.getWorker(1);
+            prover.setSearchLimits(SearchLimits.ofIterations(100_000));
+            prover.search();
+            assertNotNull(prover.getTree().getRoot().getWinningChild());
+
+            var idleRoot = search.getWorker(0).getTree().getRoot();
+            int idleVisits = idleRoot.getVisits();
+            search.setSearchLimits(SearchLimits.ofIterations(100_000));
+
+            board.performMove(search.rollout());
+
+            assertEquals(Status.AI_WIN, board.getStatus());
+            assertEquals(idleVisits, idleRoot.getVisits());
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * Plays random games until the AI is to move on a forced board with a move that wins the game.
+     *
+     * @return The moves leading to the position.
+     */
+    private static List<Integer> gameWithWinningMoveForAI() {
+        while (true) {
+            var board = new MCTSBoard();
+            var history = new ArrayList<Integer>();
+            while (board.inProgress()) {
+                if (board.nextMovesComplete() && board.getNextPlayer() == Player.AI) {
+                    for (var move : board.getNextMoves()) {
+                        var next = new MCTSBoard(board);
+                        next.performMove(move);
+                        if (next.getStatus() == Status.AI_WIN)
+                            return history;
+                    }
+                }
+                int move = board.getRandomMoveCode();
+                board.performMove(move);
+                history.add(move);
+            }
+        }
+    }
+
+}
@@ -0,0 +1,49 @@
+package mcts;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SearchLimitsTest {
+
+    @Test
+    void testForLevelBoundsOnlyTime() {
+        var limits = SearchLimits.forLevel(3);
+
+        assertEquals(500_000_000L, limits.timeNanos());
+        assertEquals(SearchLimits.UNLIMITED, limits.maxIterations());
+        assertEquals(SearchLimits.UNLIMITED, limits.maxNodes());
+        assertTrue(limits.hasDeadline());
+    }
+
+    @Test
+    void testScaledKeepsUnlimitedBounds() {
+        var limits = SearchLimits.ofIterations(1000).withMaxNodes(50).scaled(10);
+
+        assertEquals(10_000, limits.maxIterations());
+        assertEquals(50, limits.maxNodes());
+        assertEquals(SearchLimits.UNLIMITED, limits.timeNanos());
+        assertFalse(limits.hasDeadline());
+    }
+
+    @Test
+    void testAfterElapsedReducesOnlyTime() {
+        var limits = SearchLimits.ofMillis(100).afterElapsed(30_000_000L);
+
+        assertEquals(70_000_000L, limits.timeNanos());
+        assertEquals(SearchLimits.UNLIMITED, limits.maxIterations());
+        assertEquals(1, SearchLimits.ofMillis(100).afterElapsed(200_000_000L).timeNanos());
+
+        var iterations = SearchLimits.ofIterations(1000);
+        assertSame(iterations, iterations.afterElapsed(30_000_000L));
+    }
+
+    @Test
+    void testInvalidLimitsAreRejected() {
+        assertThrows(IllegalArgumentException.class, () -> SearchLimits.ofIterations(0));
+        assertThrows(IllegalArgumentException.class, () -> SearchLimits.forLevel(11));
+        assertThrows(IllegalArgumentException.class,
+                () -> new SearchLimits(1, 1, 1, 0));
+    }
+
+}
@@ -0,0 +1,50 @@
+package mcts;
+
+import common.Move;
+import common.Player;
+import common.Position;
+import mcts.tree.Tree;
+
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Measures how playouts per second of tree-parallel MCTS scale with the number of threads
+ * searching one shared tree. Not a unit test; run it with
+ * {@code mvn test-compile exec:java -Dexec.classpathScope=test -Dexec.mainClass=mcts.TreeParallelBenchmark}.
+ */
+public class TreeParallelBenchmark {
+
+    private static final int LEVEL = 5;
+    private static final int ROUNDS = 3;
+
+    public static void main(String[] args) {
+        int maxThreads = args.length > 0 ? Integer.parseInt(args[0]) : 8;
+        double baseline = 0;
+
+        for (int threads = 1; threads <= maxThreads; threads *= 2) {
+            var pool = new ForkJoinPool(threads);
+            long playouts = 0;
+            long nanos = 0;
+
+            for (int round = 0; round < ROUNDS; round++) {
+                var tree = new Tree();
+                var mcts = new MCTS(tree, LEVEL, pool, threads);
+                mcts.updateTree(Move.of(4, Position.MIDDLE_CENTER, Player.HUMAN).code());
+                var root = tree.getRoot();
+
+                long start = System.nanoTime();
+                mcts.rollout();
+                nanos += System.nanoTime() - start;
+                playouts += root.getVisits();
+            }
+            pool.shutdown();
+
+            double perSecond = playouts / (nanos / 1e9);
+            if (threads == 1)
+                baseline = perSecond;
+
+            System.out.printf("threads=%d playouts/s=%.0f speedup=%.2f%n", threads, perSecond, perSecond / baseline);
+        }
+    }
+
+}
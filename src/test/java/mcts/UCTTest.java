@@ -0,0 +1,62 @@
+package mcts;
+
+import common.XorShiftRandom;
+import mcts.tree.Node;
+import org.junit.jupiter.api.RepeatedTest;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class UCTTest {
+
+    @RepeatedTest(20)
+    void testSelectionMatchesUCTFormula() {
+        var random = new XorShiftRandom(System.nanoTime());
+        var root = new Node();
+        root.expandChildren(null);
+        root.addVisits(random.nextInt(10_000) + 1);
+        for (var child : root.getChildren()) {
+            child.addVisits(random.nextInt(6_000) + 1);
+            child.updateWinScore(random.nextInt(20_000) - 10_000);
+        }
+
+        Node expected = null;
+        double expectedValue = Double.NEGATIVE_INFINITY;
+        for (var child : root.getChildren()) {
+            double value = child.getWinScore() / (double) child.getVisits()
+                    + 0.7 * Math.sqrt(Math.log(root.getVisits()) / child.getVisits());
+            if (value > expectedValue) {
+                expectedValue = value;
+                expected = child;
+            }
+        }
+
+        assertSame(expected, UCT.findBestLeafNode(root, 0.7));
+    }
+
+    @Test
+    void testZeroExplorationPicksBestAverage() {
+        var root = new Node();
+        root.expandChildren(null);
+        root.addVisits(100);
+        var children = root.getChildren();
+        children.get(0).addVisits(90);
+        children.get(0).updateWinScore(900);
+        children.get(1).addVisits(2);
+        children.get(1).updateWinScore(100);
+        for (int i = 2; i < children.size(); i++) {
+            children.get(i).addVisits(1);
+        }
+
+        assertSame(children.get(1), UCT.findBestLeafNode(root, 0));
+    }
+
+    @Test
+    void testInvalidExplorationConstantIsRejected() {
+        var mcts = new MCTS(1);
+
+        assertThrows(IllegalArgumentException.class, () -> mcts.setExplorationConstant(-1));
+        assertThrows(IllegalArgumentException.class, () -> mcts.setExplorationConstant(Double.NaN));
+    }
+
+}
@@ -0,0 +1,72 @@
+package mcts.tree;
+
+import board.MCTSBoard;
+import common.Move;
+import common.Player;
+import common.Position;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ArenaTreeTest {
+
+    @Test
+    void testExpandCreatesContiguousChildren() {
+        var board = new MCTSBoard();
+        board.performMove(new Move(0, Position.MIDDLE_CENTER, Player.HUMAN));
+        var tree = new ArenaTree(board);
+
+        tree.expand(tree.getRoot(), board);
+
+        int first = tree.getFirstChild(tree.getRoot());
+        assertEquals(9, tree.getChildCount(tree.getRoot()));
+        assertEquals(10, tree.size());
+
+        for (int child = first; child < first + 9; child++) {
+            assertEquals(tree.getRoot(), tree.getParent(child));
+            assertEquals(4, Move.boardOf(tree.getMove(child)));
+            assertEquals(Player.AI, Move.playerOf(tree.getMove(child)));
+        }
+    }
+
+    @Test
+    void testAdvanceKeepsExploredSubtree() {
+        var board = new MCTSBoard();
+        board.performMove(new Move(0, Position.MIDDLE_CENTER, Player.HUMAN));
+        var tree = new ArenaTree(new MCTSBoard(board));
+
+        tree.expand(tree.getRoot(), board);
+        int child = tree.getFirstChild(tree.getRoot()) + 2;
+        int move = tree.getMove(child);
+
+        board.doMove(move);
+        tree.expand(child, board);
+        tree.update(child, 100);
+        int grandChildren = tree.getChildCount(child);
+
+        tree.advance(move);
+
+        assertEquals(1 + grandChildren, tree.size());
+        assertEquals(move, tree.getMove(tree.getRoot()));
+        assertEquals(1, tree.getVisits(tree.getRoot()));
+        assertEquals(100, tree.getWinScore(tree.getRoot()));
+        assertEquals(ArenaTree.NONE, tree.getParent(tree.getRoot()));
+        assertEquals(board.getHash(), tree.getRootBoard().getHash());
+    }
+
+    @Test
+    void testGrowsBeyondOneChunk() {
+        var board = new MCTSBoard();
+        board.performMove(new Move(0, Position.MIDDLE_CENTER, Player.HUMAN));
+        var tree = new ArenaTree(board);
+        int leaves = 0;
+
+        while (tree.size() <= ArenaTree.CHUNK_SIZE) {
+            tree.expand(tree.getRoot(), board);
+            leaves += 9;
+        }
+
+        assertEquals(1 + leaves, tree.size());
+    }
+
+}
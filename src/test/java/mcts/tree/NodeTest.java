@@ -0,0 +1,53 @@
+package mcts.tree;
+
+import common.Move;
+import common.Player;
+import common.Position;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class NodeTest {
+
+    @Test
+    void testExpandNextMaterializesOneChildPerCall() {
+        var node = new Node();
+        node.getBoard().performMove(Move.of(4, Position.MIDDLE_CENTER, Player.AI));
+        var moves = new HashSet<Integer>();
+
+        for (int i = 1; i <= 8; i++) {
+            var child = node.expandNext(null, null);
+
+            assertNotNull(child);
+            assertSame(node, child.getParent());
+            assertEquals(child.getMove(), child.getBoard().getLastMoveCode());
+            assertTrue(moves.add(child.getMove()));
+            assertEquals(i, node.getChildren().size());
+            assertEquals(i == 8, node.isFullyExpanded());
+        }
+
+        assertNull(node.expandNext(null, null));
+        assertEquals(0, node.expandChildren(null));
+    }
+
+    @Test
+    void testCollapsedNodeCanBeExpandedAgainFromPool() {
+        var node = new Node();
+        var pool = new NodePool();
+        node.expandChildren(null);
+
+        int released = node.collapse(pool);
+
+        assertEquals(released, pool.size());
+        assertFalse(node.isExpanded());
+        assertFalse(node.hasChildren());
+
+        var child = node.expandNext(null, pool);
+        assertFalse(child.isReleased());
+        assertEquals(released - 1, pool.size());
+        assertEquals(child.getMove(), child.getBoard().getLastMoveCode());
+    }
+
+}
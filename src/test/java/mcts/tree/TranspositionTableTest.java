@@ -0,0 +1,94 @@
+package mcts.tree;
+
+import board.MCTSBoard;
+import common.Move;
+import common.Player;
+import common.Position;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TranspositionTableTest {
+
+    @Test
+    void testPutAndGet() {
+        var table = new TranspositionTable(16);
+        var statistics = new NodeStatistics(0, 0);
+
+        table.put(42L, statistics);
+
+        assertSame(statistics, table.get(42L));
+        assertNull(table.get(43L));
+        assertEquals(1, table.size());
+    }
+
+    @Test
+    void testSizeIsBounded() {
+        var table = new TranspositionTable(64);
+
+        for (long hash = 0; hash < 10_000; hash++)
+            table.put(hash * 0x9E3779B97F4A7C15L, new NodeStatistics(0, 0));
+
+        assertEquals(64, table.capacity());
+        assertEquals(64, table.size());
+    }
+
+    @Test
+    void testEvictsLeastVisitedEntry() {
+        // A single bucket, so every key competes for the same four slots.
+        var table = new TranspositionTable(4);
+
+        for (int i = 0; i < 4; i++)
+            table.put(i, new NodeStatistics(0, i == 2 ? 1 : 10));
+
+        table.put(99L, new NodeStatistics(0, 0));
+
+        assertNull(table.get(2L));
+        assertNotNull(table.get(99L));
+        assertNotNull(table.get(0L));
+    }
+
+    @Test
+    void testEvictsOlderGenerationFirst() {
+        var table = new TranspositionTable(4);
+
+        for (int i = 0; i < 4; i++)
+            table.put(i, new NodeStatistics(0, 100));
+
+        table.nextGeneration();
+        for (int i = 1; i < 4; i++)
+            table.get(i);
+
+        table.put(99L, new NodeStatistics(0, 0));
+
+        assertNull(table.get(0L));
+    }
+
+    @Test
+    void testTranspositionsShareStatistics() {
+        var table = new TranspositionTable(16);
+        var root = new Node();
+
+        var first = new MCTSBoard();
+        first.performMove(new Move(0, Position.MIDDLE_CENTER, Player.AI));
+        first.performMove(new Move(4, Position.TOP_LEFT, Player.HUMAN));
+        first.performMove(new Move(0, Position.BOTTOM_RIGHT, Player.AI));
+        first.performMove(new Move(8, Position.TOP_LEFT, Player.HUMAN));
+
+        var second = new MCTSBoard();
+        second.performMove(new Move(0, Position.BOTTOM_RIGHT, Player.AI));
+        second.performMove(new Move(8, Position.TOP_LEFT, Player.HUMAN));
+        second.performMove(new Move(0, Position.MIDDLE_CENTER, Player.AI));
+        second.performMove(new Move(4, Position.TOP_LEFT, Player.HUMAN));
+
+        var firstNode = new Node(root, first, table);
+        var secondNode = new Node(root, second, table);
+
+        firstNode.incrementVisits();
+        firstNode.updateWinScore(100);
+
+        assertEquals(1, secondNode.getVisits());
+        assertEquals(100, secondNode.getWinScore());
+    }
+
+}
@@ -0,0 +1,125 @@
+package mcts.tree;
+
+import board.MCTSBoard;
+import common.Move;
+import common.Player;
+import common.Position;
+import mcts.MCTS;
+import mcts.SearchLimits;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayDeque;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TreeTest {
+
+    @Test
+    void testNodeBudgetPrunesAndRecyclesNodes() {
+        var tree = new Tree(null, 300);
+        var mcts = new MCTS(tree, 10);
+        mcts.setSearchLimits(SearchLimits.ofIterations(5_000));
+
+        mcts.updateTree(Move.of(4, Position.MIDDLE_CENTER, Player.HUMAN).code());
+        mcts.search();
+
+        int nodes = 0;
+        var pending = new ArrayDeque<Node>();
+        pending.add(tree.getRoot());
+        while (!pending.isEmpty()) {
+            var node = pending.poll();
+            assertFalse(node.isReleased());
+            nodes++;
+            for (var child : node.getChildren()) {
+                assertSame(node, child.getParent());
+                pending.add(child);
+            }
+        }
+
+        assertEquals(nodes, tree.size());
+        assertTrue(nodes <= 300);
+        assertTrue(tree.getNodePool().size() > 0);
+        assertEquals(5_000, tree.getRoot().getVisits());
+    }
+
+    @Test
+    void testTreeParallelGameKeepsPooledNodesWithinBudget() {
+        int budget = 2_000;
+        var pool = new ForkJoinPool(4);
+        var tree = new Tree(null, budget);
+        var mcts = new MCTS(tree, 10, pool, 4);
+        mcts.setSearchLimits(SearchLimits.ofIterations(5_000));
+
+        try {
+            var board = new MCTSBoard();
+            while (board.inProgress()) {
+                if (board.getNextPlayer() == Player.AI) {
+                    board.performMove(mcts.rollout());
+                } else {
+                    int move = board.getRandomMoveCode();
+                    board.performMove(move);
+                    mcts.updateTree(move);
+                }
+
+                int nodes = tree.size() + tree.getNodePool().size();
+                assertTrue(nodes <= budget, "Tree and pooled nodes: " + nodes);
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    void testEnsureCapacityKeepsRootChildren() {
+        var tree = new Tree(null, 40);
+        var root = tree.getRoot();
+        tree.addNodes(root.expandChildren(null));
+        for (var child : root.getChildren()) {
+            if (tree.hasCapacity(Node.MAX_CHILDREN))
+                tree.addNodes(child.expandChildren(null));
+        }
+
+        tree.ensureCapacity(Node.MAX_CHILDREN);
+
+        assertTrue(tree.hasCapacity(Node.MAX_CHILDREN));
+        assertFalse(root.getChildren().isEmpty());
+        assertTrue(root.getChildren().stream().noneMatch(Node::isReleased));
+    }
+
+    @Test
+    void testInvalidNodeBudgetIsRejected() {
+        assertThrows(IllegalArgumentException.class, () -> new Tree(null, 0));
+    }
+
+    @Test
+    void testAdvanceDetachesNewRootAndRecyclesSiblings() {
+        var tree = new Tree(null, 1_000);
+        var mcts = new MCTS(tree, 10);
+        mcts.setSearchLimits(SearchLimits.ofIterations(300));
+
+        mcts.updateTree(Move.of(4, Position.MIDDLE_CENTER, Player.HUMAN).code());
+        mcts.search();
+
+        var oldRoot = tree.getRoot();
+        var next = oldRoot.getChildWithMaxScore();
+        int retained = tree.advance(next.getMove());
+
+        assertSame(next, tree.getRoot());
+        assertNull(next.getParent());
+        assertEquals(tree.size(), retained);
+        assertTrue(oldRoot.getChildren().stream().filter(child -> child != next).allMatch(Node::isReleased));
+    }
+
+    @Test
+    void testAdvanceToUnexploredMoveCreatesParentlessRoot() {
+        var tree = new Tree();
+
+        int retained = tree.advance(Move.of(4, Position.MIDDLE_CENTER, Player.HUMAN).code());
+
+        assertEquals(1, retained);
+        assertNull(tree.getRoot().getParent());
+        assertEquals(0, tree.getRoot().getVisits());
+    }
+
+}
@@ -0,0 +1,86 @@
+package solver;
+
+import board.MCTSBoard;
+import common.Player;
+import common.Status;
+import common.XorShiftRandom;
+import mcts.MCTS;
+import mcts.SearchLimits;
+import mcts.tree.Node;
+import mcts.tree.Tree;
+
+/**
+ * Measures the endgame solver on random positions with the AI to move and at most a given number of open cells:
+ * how many positions it solves within its node limit, how long that takes, and how often MCTS with
+ * the given time per move throws away a win the solver proves. Not a unit test; run it with
+ * {@code mvn test-compile exec:java -Dexec.classpathScope=test -Dexec.mainClass=solver.EndgameBenchmark
+ * -Dexec.args="<positions> <millis per MCTS move>"}.
+ */
+public class EndgameBenchmark {
+
+    private static final int[] OPEN_CELLS = {10, 15, 20, 25, 30, 35, 40};
+
+    public static void main(String[] args) {
+        int positions = args.length > 0 ? Integer.parseInt(args[0]) : 40;
+        long millis = args.length > 1 ? Long.parseLong(args[1]) : 100;
+        var random = new XorShiftRandom(42);
+
+        for (int openCells : OPEN_CELLS) {
+            int solved = 0;
+            int wins = 0;
+            int misplayedWins = 0;
+            long solveNanos = 0;
+            long maxSolveNanos = 0;
+
+            for (int i = 0; i < positions; i++) {
+                var board = positionWithAIToMove(openCells, random);
+
+                long start = System.nanoTime();
+                var result = new EndgameSolver().solve(board);
+                long nanos = System.nanoTime() - start;
+                solveNanos += nanos;
+                maxSolveNanos = Math.max(maxSolveNanos, nanos);
+
+                if (result == null)
+                    continue;
+                solved++;
+                if (result.value() == EndgameSolver.WIN) {
+                    wins++;
+                    if (!keepsWin(board, searchMove(board, millis)))
+                        misplayedWins++;
+                }
+            }
+
+            System.out.printf("open cells<=%d: solved=%d/%d avg=%.1f ms max=%.1f ms, MCTS (%d ms) misplayed %d of %d wins%n",
+                    openCells, solved, positions, solveNanos / 1e6 / positions, maxSolveNanos / 1e6,
+                    millis, misplayedWins, wins);
+        }
+    }
+
+    private static MCTSBoard positionWithAIToMove(int openCells, XorShiftRandom random) {
+        while (true) {
+            var board = EndgameSolverTest.randomPosition(openCells, random);
+            if (board.getNextPlayer() == Player.AI)
+                return board;
+        }
+    }
+
+    private static int searchMove(MCTSBoard board, long millis) {
+        var tree = new Tree();
+        tree.setRoot(new Node(new MCTSBoard(board)));
+        var mcts = new MCTS(tree, 1);
+        mcts.setSearchLimits(SearchLimits.ofMillis(millis));
+        return mcts.rollout().code();
+    }
+
+    private static boolean keepsWin(MCTSBoard board, int move) {
+        var next = new MCTSBoard(board);
+        next.performMove(move);
+        if (!next.inProgress())
+            return next.getStatus() == Status.AI_WIN;
+
+        var result = new EndgameSolver().solve(next);
+        return result != null && result.value() == EndgameSolver.LOSS;
+    }
+
+}
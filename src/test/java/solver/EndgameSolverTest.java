@@ -0,0 +1,116 @@
+package solver;
+
+import board.MCTSBoard;
+import board.MoveSet;
+import common.Move;
+import common.Status;
+import common.XorShiftRandom;
+import org.junit.jupiter.api.RepeatedTest;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class EndgameSolverTest {
+
+    /**
+     * Plays random moves until at most the given number of open cells is left, starting over if the game ends first.
+     */
+    static MCTSBoard randomPosition(int openCells, XorShiftRandom random) {
+        while (true) {
+            var board = new MCTSBoard();
+            while (board.inProgress() && board.countOpenCells() > openCells) {
+                board.performMove(randomMove(board, random));
+            }
+            if (board.inProgress())
+                return board;
+        }
+    }
+
+    private static int randomMove(MCTSBoard board, XorShiftRandom random) {
+        var moves = new MoveSet();
+        board.getLegalMoves(moves);
+        int index = moves.nextIndex(0);
+        for (int skip = random.nextInt(moves.size()); skip > 0; skip--)
+            index = moves.nextIndex(index + 1);
+        return Move.encode(index / 9, index % 9, board.getNextPlayer());
+    }
+
+    /**
+     * Computes the value of a position by plain minimax.
+     */
+    private static int minimax(MCTSBoard board) {
+        if (!board.inProgress())
+            return board.getStatus() == Status.DRAW ? EndgameSolver.DRAW : EndgameSolver.LOSS;
+
+        var moves = new MoveSet();
+        board.getLegalMoves(moves);
+        int best = EndgameSolver.LOSS;
+        for (int index = moves.nextIndex(0); index >= 0; index = moves.nextIndex(index + 1)) {
+            board.doMove(Move.encode(index / 9, index % 9, board.getNextPlayer()));
+            best = Math.max(best, -minimax(board));
+            board.undoMove();
+        }
+        return best;
+    }
+
+    @RepeatedTest(30)
+    void testSolverAgreesWithMinimax() {
+        var board = randomPosition(8, XorShiftRandom.current());
+
+        var result = new EndgameSolver().solve(board);
+
+        assertNotNull(result);
+        assertEquals(minimax(board), result.value());
+    }
+
+    @RepeatedTest(30)
+    void testBestMoveKeepsValue() {
+        var board = randomPosition(18, XorShiftRandom.current());
+        var solver = new EndgameSolver();
+
+        var result = solver.solve(board);
+        board.performMove(result.move());
+
+        int valueAfterMove = board.inProgress() ? -solver.solve(board).value()
+                : board.getStatus() == Status.DRAW ? EndgameSolver.DRAW : EndgameSolver.WIN;
+        assertEquals(result.value(), valueAfterMove);
+    }
+
+    @Test
+    void testSolverGivesUpAtNodeLimit() {
+        var board = randomPosition(60, new XorShiftRandom(3));
+
+        assertNull(new EndgameSolver(1 << 10, 100).solve(board));
+    }
+
+    @Test
+    void testSolverGivesUpAtTimeLimit() {
+        var board = randomPosition(60, new XorShiftRandom(3));
+        var solver = new EndgameSolver(1 << 10, Long.MAX_VALUE);
+
+        long start = System.nanoTime();
+        var result = solver.solve(board, 20_000_000L);
+        long elapsed = System.nanoTime() - start;
+
+        assertNull(result);
+        assertTrue(elapsed < 500_000_000L, "Elapsed: " + elapsed);
+    }
+
+    @Test
+    void testSolverRejectsDecidedGame() {
+        var random = new XorShiftRandom(5);
+        var board = randomPosition(10, random);
+        while (board.inProgress())
+            board.performMove(randomMove(board, random));
+
+        assertThrows(IllegalArgumentException.class, () -> new EndgameSolver().solve(board));
+    }
+
+    @Test
+    void testSolverRejectsInvalidSettings() {
+        assertThrows(IllegalArgumentException.class, () -> new EndgameSolver(1000, 100));
+        assertThrows(IllegalArgumentException.class, () -> new EndgameSolver(1024, 0));
+        assertThrows(IllegalArgumentException.class, () -> new EndgameSolver().solve(randomPosition(10, new XorShiftRandom(5)), 0));
+    }
+
+}